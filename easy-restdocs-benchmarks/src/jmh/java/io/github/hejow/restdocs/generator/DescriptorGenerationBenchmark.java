@@ -0,0 +1,67 @@
+package io.github.hejow.restdocs.generator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.payload.FieldDescriptor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DescriptorGenerationBenchmark {
+  @Param({"10", "50"})
+  private int width;
+
+  @Param({"1", "8"})
+  private int depth;
+
+  @Param({"1", "1000"})
+  private int arrayLength;
+
+  private MockHttpServletRequest request;
+  private MockHttpServletResponse response;
+
+  @Setup
+  public void setup() throws Exception {
+    var body = Payloads.json(width, depth, arrayLength);
+
+    request = new MockHttpServletRequest("POST", "/payloads");
+    request.setContentType(APPLICATION_JSON_VALUE);
+    request.setCharacterEncoding(UTF_8.name());
+    request.setContent(body);
+
+    response = new MockHttpServletResponse();
+    response.setStatus(200);
+    response.setContentType(APPLICATION_JSON_VALUE);
+    response.setCharacterEncoding(UTF_8.name());
+    response.getOutputStream().write(body);
+  }
+
+  @Benchmark
+  public List<FieldDescriptor> requestFields() {
+    return DocsGenerateUtil.requestFields(request, Collections.emptyList(), JsonEngine.defaults(), new PrettyBody(0, ExampleLimits.none()), new DocumentRecorder());
+  }
+
+  @Benchmark
+  public List<FieldDescriptor> responseFields() {
+    return DocsGenerateUtil.responseFields(response, Collections.emptyList(), JsonEngine.defaults(), new PrettyBody(0, ExampleLimits.none()), new DocumentRecorder());
+  }
+}
@@ -0,0 +1,103 @@
+package io.github.hejow.restdocs.generator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.restdocs.ManualRestDocumentation;
+import org.springframework.restdocs.mockmvc.RestDocumentationResultHandler;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.filter.CharacterEncodingFilter;
+
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.documentationConfiguration;
+import static org.springframework.restdocs.mockmvc.RestDocumentationRequestBuilders.post;
+
+/**
+ * Cost of building the handler of one MockMvc call with {@code buildAndGenerate()},
+ * and end to end from the handler to written snippets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DocumentGenerateBenchmark {
+  private static final ApiTag TAG = () -> "Benchmark";
+
+  @Param({"10", "50"})
+  private int width;
+
+  @Param({"100"})
+  private int arrayLength;
+
+  private ManualRestDocumentation restDocumentation;
+  private MvcResult mvcResult;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    restDocumentation = new ManualRestDocumentation(Files.createTempDirectory("easy-restdocs-benchmark").toString());
+    restDocumentation.beforeTest(DocumentGenerateBenchmark.class, "generate");
+
+    MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new PayloadController())
+      .apply(documentationConfiguration(restDocumentation))
+      .addFilter(new CharacterEncodingFilter(UTF_8.name(), true))
+      .build();
+
+    mvcResult = mockMvc.perform(post("/payloads")
+        .contentType(APPLICATION_JSON)
+        .content(Payloads.json(width, 3, arrayLength)))
+      .andReturn();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    restDocumentation.afterTest();
+  }
+
+  @Benchmark
+  public RestDocumentationResultHandler buildAndGenerate() {
+    return document().buildAndGenerate();
+  }
+
+  @Benchmark
+  public MvcResult buildAndGenerateAndHandle() throws Exception {
+    document().buildAndGenerate().handle(mvcResult);
+    return mvcResult;
+  }
+
+  private Document.Builder document() {
+    return Document.builder()
+      .identifier("benchmark")
+      .tag(TAG)
+      .summary("benchmark")
+      .request(mvcResult.getRequest())
+      .response(mvcResult.getResponse());
+  }
+
+  @RestController
+  public static class PayloadController {
+    @PostMapping(value = "/payloads", produces = APPLICATION_JSON_VALUE)
+    public String echo(@RequestBody String body) {
+      return body;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the path of every node of a body, with formatted strings as before and with {@link FieldPath}. <br>
+ * Both materialise each distinct path once, the way descriptors are created.
+ * Run with {@code -prof gc} (the default of this module) to compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PathConstructionBenchmark {
+  @Param({"10", "50"})
+  private int width;
+
+  @Param({"1", "8"})
+  private int depth;
+
+  @Param({"1", "1000"})
+  private int arrayLength;
+
+  private JsonNode root;
+
+  @Setup
+  public void setup() throws Exception {
+    root = new ObjectMapper().readTree(Payloads.json(width, depth, arrayLength));
+  }
+
+  @Benchmark
+  public void formattedStrings(Blackhole blackhole) {
+    var materialized = new HashSet<String>();
+    walkFormatted(root, "", materialized, blackhole);
+  }
+
+  @Benchmark
+  public void fieldPaths(Blackhole blackhole) {
+    var materialized = new HashSet<FieldPath>();
+    walkFieldPath(root, FieldPath.root(), materialized, blackhole);
+  }
+
+  private static void walkFormatted(JsonNode node, String path, HashSet<String> materialized, Blackhole blackhole) {
+    if (node.isObject()) {
+      node.fields().forEachRemaining(field -> walkFormatted(
+        field.getValue(),
+        path.isBlank() ? field.getKey() : "%s.%s".formatted(path, field.getKey()),
+        materialized,
+        blackhole
+      ));
+    } else if (node.isArray()) {
+      var elementPath = "%s[]".formatted(path);
+      node.elements().forEachRemaining(element -> walkFormatted(element, elementPath, materialized, blackhole));
+    } else if (materialized.add(path)) {
+      blackhole.consume(path);
+    }
+  }
+
+  private static void walkFieldPath(JsonNode node, FieldPath path, HashSet<FieldPath> materialized, Blackhole blackhole) {
+    if (node.isObject()) {
+      node.fields().forEachRemaining(field -> walkFieldPath(field.getValue(), path.child(field.getKey()), materialized, blackhole));
+    } else if (node.isArray()) {
+      var elementPath = path.element();
+      node.elements().forEachRemaining(element -> walkFieldPath(element, elementPath, materialized, blackhole));
+    } else if (materialized.add(path)) {
+      blackhole.consume(path.toString());
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Synthetic JSON bodies shaped by width (fields per object), depth (nested objects) and array length (rows of {@code items}).
+ */
+final class Payloads {
+  private static final JsonFactory factory = new JsonFactory();
+
+  private Payloads() {
+    throw new AssertionError("Can't be initialize!");
+  }
+
+  static byte[] json(int width, int depth, int arrayLength) {
+    var output = new ByteArrayOutputStream();
+
+    try (var generator = factory.createGenerator(output)) {
+      generator.writeStartObject();
+      writeLevel(generator, width, depth);
+
+      generator.writeArrayFieldStart("items");
+      for (var row = 0; row < arrayLength; row++) {
+        generator.writeStartObject();
+        writeFields(generator, width, row);
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+
+      generator.writeEndObject();
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+
+    return output.toByteArray();
+  }
+
+  private static void writeLevel(JsonGenerator generator, int width, int depth) throws IOException {
+    writeFields(generator, width, depth);
+
+    if (depth > 0) {
+      generator.writeObjectFieldStart("child");
+      writeLevel(generator, width, depth - 1);
+      generator.writeEndObject();
+    }
+  }
+
+  private static void writeFields(JsonGenerator generator, int width, int seed) throws IOException {
+    for (var field = 0; field < width; field++) {
+      switch (field % 4) {
+        case 0 -> generator.writeStringField("text" + field, "value-" + seed);
+        case 1 -> generator.writeNumberField("number" + field, seed * 31L + field);
+        case 2 -> generator.writeBooleanField("flag" + field, (seed + field) % 2 == 0);
+        default -> generator.writeNumberField("decimal" + field, seed / 7.0);
+      }
+    }
+  }
+}
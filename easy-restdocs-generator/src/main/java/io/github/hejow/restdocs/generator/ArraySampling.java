@@ -0,0 +1,125 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Decides which elements of an array are inspected while generating descriptors. <br>
+ * Element shapes are merged, so inspecting a bounded sample keeps time and memory flat however long a list grows.
+ * When objects are left out of the sample, the elements are covered by a subsection (e.g. {@code data[]})
+ * and their fields are optional, so fields that only appear outside the sample still pass payload validation.
+ * Without merging ({@code mergeArrays(false)}) fields are still required in every element, as they always were.
+ *
+ * @see DocsConfiguration.Builder#arraySampling(ArraySampling)
+ */
+public final class ArraySampling {
+  private static final ArraySampling ALL = new ArraySampling(Mode.ALL, Integer.MAX_VALUE, 0L);
+  private static final long DEFAULT_SEED = 0L;
+
+  private final Mode mode;
+  private final int size;
+  private final long seed;
+
+  private ArraySampling(Mode mode, int size, long seed) {
+    if (size < 1) {
+      throw new IllegalArgumentException("Sample size must be positive");
+    }
+
+    this.mode = mode;
+    this.size = size;
+    this.seed = seed;
+  }
+
+  public static ArraySampling all() {
+    return ALL;
+  }
+
+  public static ArraySampling first(int size) {
+    return new ArraySampling(Mode.FIRST, size, DEFAULT_SEED);
+  }
+
+  /**
+   * Picks {@code size} elements at random, with a fixed seed so generated snippets stay reproducible.
+   */
+  public static ArraySampling random(int size) {
+    return random(size, DEFAULT_SEED);
+  }
+
+  public static ArraySampling random(int size, long seed) {
+    return new ArraySampling(Mode.RANDOM, size, seed);
+  }
+
+  boolean isRandom() {
+    return mode == Mode.RANDOM;
+  }
+
+  /**
+   * Whether the element at {@code index} of a streamed array is inspected. Random samples need the array size, so they are never streamed.
+   */
+  boolean includes(int index) {
+    return index < size;
+  }
+
+  /**
+   * Whether an element of {@code array} outside the sample is an object, whose fields may differ from the sampled ones.
+   */
+  boolean leavesObjectsOut(JsonNode array) {
+    if (mode == Mode.ALL || array.size() <= size) {
+      return false;
+    }
+
+    var sampled = mode == Mode.FIRST ? IntStream.range(0, size).toArray() : pick(array.size());
+
+    for (int index = 0, next = 0; index < array.size(); index++) {
+      if (next < sampled.length && sampled[next] == index) {
+        next++;
+      } else if (array.get(index).isObject()) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  Iterator<JsonNode> elements(JsonNode array) {
+    if (mode == Mode.ALL || array.size() <= size) {
+      return array.elements();
+    }
+
+    if (mode == Mode.FIRST) {
+      return indices(array, IntStream.range(0, size).toArray());
+    }
+
+    return indices(array, pick(array.size()));
+  }
+
+  /**
+   * Floyd's algorithm, picks {@code size} distinct indices out of {@code bound} in O(size).
+   */
+  private int[] pick(int bound) {
+    var random = new SplittableRandom(seed);
+    var picked = new HashSet<Integer>(size * 2);
+
+    for (var candidate = bound - size; candidate < bound; candidate++) {
+      var index = random.nextInt(candidate + 1);
+      picked.add(picked.contains(index) ? candidate : index);
+    }
+
+    var indices = picked.stream().mapToInt(Integer::intValue).toArray();
+    Arrays.sort(indices);
+    return indices;
+  }
+
+  private static Iterator<JsonNode> indices(JsonNode array, int[] indices) {
+    return Arrays.stream(indices).mapToObj(array::get).iterator();
+  }
+
+  private enum Mode {
+    ALL, FIRST, RANDOM
+  }
+}
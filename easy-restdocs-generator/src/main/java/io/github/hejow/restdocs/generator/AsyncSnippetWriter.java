@@ -0,0 +1,313 @@
+package io.github.hejow.restdocs.generator;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.restdocs.RestDocumentationContext;
+import org.springframework.restdocs.snippet.RestDocumentationContextPlaceholderResolverFactory;
+import org.springframework.restdocs.snippet.WriterResolver;
+import org.springframework.util.PropertyPlaceholderHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+
+/**
+ * Writes snippets on a background thread instead of the test thread. <br>
+ * Snippets are rendered in memory and handed to a bounded queue, a full queue blocks the test until the writer catches up.
+ * The queue is drained in batches and flushed when the JUnit run finishes.
+ * Queues are striped by identifier, so tests running in parallel don't contend on one queue
+ * while the snippets of one identifier are still written in order by a single thread.
+ *
+ * <br>
+ *
+ * A failed write fails the test class that documented it after its last test, see {@link SnippetFlushExtension}.
+ * Without extension autodetection, classes other than {@link EasyRestDocsTest} call {@link #flushAll()} in an {@code @AfterAll},
+ * failures left when the JUnit run finishes are only logged by the launcher.
+ *
+ * <br>
+ *
+ * {@code resource.json} is written by restdocs-api-spec through a writer of its own and never queued,
+ * it is written on the test thread, or appended by {@link SnippetStore}.
+ *
+ * @see DocsConfiguration.Builder#asyncWrites(boolean)
+ */
+public final class AsyncSnippetWriter {
+  private static final String CONFIGURATION_ATTRIBUTE = "org.springframework.restdocs.configuration";
+  private static final int BATCH_SIZE = 64;
+  private static final String RESOLVE = "resolve";
+  private static final PropertyPlaceholderHelper PLACEHOLDER_HELPER = new PropertyPlaceholderHelper("{", "}");
+  private static final RestDocumentationContextPlaceholderResolverFactory RESOLVER_FACTORY = new RestDocumentationContextPlaceholderResolverFactory();
+
+  /**
+   * Writers keyed by capacity and threads, configurations built alike share one.
+   */
+  private static final Map<List<Integer>, AsyncSnippetWriter> writers = new ConcurrentHashMap<>();
+
+  private final Stripe[] stripes;
+  private final Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+
+  /**
+   * @param capacity snippets waiting over all stripes
+   */
+  private AsyncSnippetWriter(int capacity, int threads) {
+    this.stripes = new Stripe[threads];
+
+    for (var index = 0; index < threads; index++) {
+      stripes[index] = new Stripe(Math.max(1, capacity / threads), "easy-restdocs-writer-" + (index + 1));
+    }
+  }
+
+  static AsyncSnippetWriter shared(int capacity, int threads) {
+    return writers.computeIfAbsent(List.of(capacity, threads), key -> new AsyncSnippetWriter(capacity, threads));
+  }
+
+  /**
+   * Waits until every queued snippet of every writer is written.
+   *
+   * @throws IllegalStateException if a snippet could not be written
+   */
+  public static void flushAll() {
+    flush(testClass -> true);
+  }
+
+  /**
+   * Waits until every queued snippet of every writer is written, and reports the failed writes of snippets documented by {@code testClass}.
+   *
+   * @throws IllegalStateException if a snippet of {@code testClass} could not be written
+   */
+  static void flush(Class<?> testClass) {
+    flush(owner -> owner == testClass);
+  }
+
+  private static void flush(Predicate<Class<?>> owners) {
+    for (var writer : writers.values()) {
+      for (var stripe : writer.stripes) {
+        stripe.await();
+      }
+    }
+
+    IllegalStateException exception = null;
+
+    for (var writer : writers.values()) {
+      for (var failure : writer.failures) {
+        if (!owners.test(failure.testClass()) || !writer.failures.remove(failure)) {
+          continue;
+        }
+
+        if (exception == null) {
+          exception = new IllegalStateException("Writing snippets failed", failure.exception());
+        } else {
+          exception.addSuppressed(failure.exception());
+        }
+      }
+    }
+
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  /**
+   * Routes the snippets of the documented call through this writer.
+   */
+  @SuppressWarnings("unchecked")
+  void install(MockHttpServletRequest request) {
+    var configuration = (Map<String, Object>) request.getAttribute(CONFIGURATION_ATTRIBUTE);
+    if (configuration == null || !(configuration.get(WriterResolver.class.getName()) instanceof WriterResolver resolver)) {
+      return;
+    }
+
+    if (Proxy.isProxyClass(resolver.getClass())) {
+      return;
+    }
+
+    var queued = new HashMap<>(configuration);
+    queued.put(WriterResolver.class.getName(), queueing(resolver));
+    request.setAttribute(CONFIGURATION_ATTRIBUTE, queued);
+  }
+
+  private void enqueue(PendingSnippet snippet) throws IOException {
+    var stripe = stripes[Math.floorMod(snippet.stripeKey().hashCode(), stripes.length)];
+
+    try {
+      stripe.put(snippet);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Queueing snippet %s interrupted".formatted(snippet.snippetName), exception);
+    }
+  }
+
+  private void write(List<PendingSnippet> batch) {
+    for (var snippet : batch) {
+      try (var writer = snippet.resolver.resolve(snippet.operationName, snippet.snippetName, snippet.context)) {
+        writer.write(snippet.content);
+      } catch (Exception exception) {
+        failures.add(new Failure(
+          snippet.context == null ? null : snippet.context.getTestClass(),
+          new IllegalStateException("Failed to write snippet %s of %s".formatted(snippet.snippetName, snippet.owner()), exception)
+        ));
+      }
+    }
+  }
+
+  private record PendingSnippet(
+    WriterResolver resolver,
+    String operationName,
+    String snippetName,
+    RestDocumentationContext context,
+    String content
+  ) {
+    /**
+     * The operation name is unresolved (e.g. {@code {method_name}}), so the test it belongs to is part of the key.
+     */
+    String stripeKey() {
+      return context == null
+        ? operationName
+        : "%s@%s#%s".formatted(operationName, context.getTestClass(), context.getTestMethodName());
+    }
+
+    /**
+     * The operation and the test that documented it, e.g. {@code {method_name} of UserControllerTest#save}.
+     */
+    String owner() {
+      return context == null
+        ? operationName
+        : "%s of %s#%s".formatted(operationName, context.getTestClass().getName(), context.getTestMethodName());
+    }
+  }
+
+  /**
+   * A failed write, owned by the test class that documented the snippet or {@code null} when it is unknown.
+   */
+  private record Failure(Class<?> testClass, IllegalStateException exception) {
+  }
+
+  /**
+   * One bounded queue and the thread draining it in batches.
+   */
+  private final class Stripe {
+    private final BlockingQueue<PendingSnippet> queue;
+    private final Object lock = new Object();
+    private long pending;
+
+    private Stripe(int capacity, String name) {
+      this.queue = new ArrayBlockingQueue<>(capacity);
+
+      var worker = new Thread(this::drain, name);
+      worker.setDaemon(true);
+      worker.start();
+    }
+
+    void put(PendingSnippet snippet) throws InterruptedException {
+      synchronized (lock) {
+        pending++;
+      }
+
+      try {
+        queue.put(snippet);
+      } catch (InterruptedException exception) {
+        done(1);
+        throw exception;
+      }
+    }
+
+    void await() {
+      synchronized (lock) {
+        while (pending > 0) {
+          try {
+            lock.wait();
+          } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Flushing snippets interrupted", exception);
+          }
+        }
+      }
+    }
+
+    private void drain() {
+      var batch = new ArrayList<PendingSnippet>(BATCH_SIZE);
+
+      while (true) {
+        try {
+          batch.add(queue.take());
+        } catch (InterruptedException exception) {
+          return;
+        }
+
+        queue.drainTo(batch, BATCH_SIZE - 1);
+        write(batch);
+
+        done(batch.size());
+        batch.clear();
+      }
+    }
+
+    private void done(int count) {
+      synchronized (lock) {
+        pending -= count;
+        lock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Hands out in-memory writers that queue their content once closed. The context is copied on the test thread,
+   * since its step count moves on before the snippet is written. <br>
+   * Other methods go to {@code delegate}, a proxy keeps this independent of the REST Docs version.
+   */
+  private WriterResolver queueing(WriterResolver delegate) {
+    InvocationHandler handler = (proxy, method, arguments) -> {
+      if (!RESOLVE.equals(method.getName())) {
+        try {
+          return method.invoke(delegate, arguments);
+        } catch (InvocationTargetException exception) {
+          throw exception.getCause();
+        }
+      }
+
+      var operationName = (String) arguments[0];
+      var snippetName = (String) arguments[1];
+      var context = (RestDocumentationContext) arguments[2];
+      var snapshot = context != null ? new ContextSnapshot(context) : null;
+      if (context != null) {
+        createDirectory(operationName, context);
+      }
+
+      return new StringWriter() {
+        private boolean closed;
+
+        @Override
+        public void close() throws IOException {
+          if (!closed) {
+            closed = true;
+            enqueue(new PendingSnippet(delegate, operationName, snippetName, snapshot, toString()));
+          }
+        }
+      };
+    };
+
+    return (WriterResolver) Proxy.newProxyInstance(WriterResolver.class.getClassLoader(), new Class<?>[]{WriterResolver.class}, handler);
+  }
+
+  /**
+   * Creates the directory of the operation before any of its snippets is queued. {@code resource.json} is written to it
+   * on the test thread, and the writer of REST Docs fails when another thread creates the directory at the same time.
+   */
+  private static void createDirectory(String operationName, RestDocumentationContext context) throws IOException {
+    var directory = new File(PLACEHOLDER_HELPER.replacePlaceholders(operationName, RESOLVER_FACTORY.create(context)));
+    Files.createDirectories((directory.isAbsolute() ? directory : new File(context.getOutputDirectory(), directory.getPath())).toPath());
+  }
+}
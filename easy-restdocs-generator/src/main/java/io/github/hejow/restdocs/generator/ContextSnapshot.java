@@ -0,0 +1,42 @@
+package io.github.hejow.restdocs.generator;
+
+import org.springframework.restdocs.RestDocumentationContext;
+
+import java.io.File;
+
+/**
+ * Copy of a {@link RestDocumentationContext} taken on the test thread, its step count moves on with the next documented call.
+ */
+final class ContextSnapshot implements RestDocumentationContext {
+  private final Class<?> testClass;
+  private final String testMethodName;
+  private final int stepCount;
+  private final File outputDirectory;
+
+  ContextSnapshot(RestDocumentationContext context) {
+    this.testClass = context.getTestClass();
+    this.testMethodName = context.getTestMethodName();
+    this.stepCount = context.getStepCount();
+    this.outputDirectory = context.getOutputDirectory();
+  }
+
+  @Override
+  public Class<?> getTestClass() {
+    return testClass;
+  }
+
+  @Override
+  public String getTestMethodName() {
+    return testMethodName;
+  }
+
+  @Override
+  public int getStepCount() {
+    return stepCount;
+  }
+
+  @Override
+  public File getOutputDirectory() {
+    return outputDirectory;
+  }
+}
@@ -0,0 +1,198 @@
+package io.github.hejow.restdocs.generator;
+
+import org.springframework.restdocs.payload.FieldDescriptor;
+import org.springframework.restdocs.payload.SubsectionDescriptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path trie over custom {@link FieldDescriptor}s, so walkers can tell in O(depth) whether a generated field is overridden. <br>
+ * Overridden subtrees are pruned before they are traversed.
+ *
+ * <br>
+ *
+ * <ul>
+ *   <li>{@code data.name} overrides exactly that field.</li>
+ *   <li>{@code data.*.name} - {@code *} matches any single key.</li>
+ *   <li>{@code data.items[].*} - a trailing {@code *} overrides everything below {@code data.items[]}.</li>
+ *   <li>{@code subsectionWithPath("data.items")} overrides the field and everything below it.</li>
+ * </ul>
+ */
+final class CustomFieldIndex {
+  private static final CustomFieldIndex EMPTY = new CustomFieldIndex(new Node(), 0L);
+
+  private static final String SEPARATOR = ".";
+  private static final String ARRAY = "[]";
+  private static final String WILDCARD = "*";
+  private static final long PRIME = 0x100000001b3L;
+
+  private final Node root;
+  private final long signature;
+
+  private CustomFieldIndex(Node root, long signature) {
+    this.root = root;
+    this.signature = signature;
+  }
+
+  static CustomFieldIndex of(List<FieldDescriptor> customFields) {
+    if (customFields.isEmpty()) {
+      return EMPTY;
+    }
+
+    var root = new Node();
+    var signature = 0L;
+
+    for (var customField : customFields) {
+      var subsection = customField instanceof SubsectionDescriptor;
+      insert(root, segments(customField.getPath()), subsection);
+      signature += hash(customField.getPath(), subsection);
+    }
+
+    return new CustomFieldIndex(root, signature);
+  }
+
+  Cursor root() {
+    return this == EMPTY ? Cursor.NONE : new Cursor(List.of(root));
+  }
+
+  /**
+   * Identifies the set of custom paths, descriptors generated under one index are only valid for an equal signature.
+   */
+  long signature() {
+    return signature;
+  }
+
+  private static void insert(Node root, List<String> segments, boolean subsection) {
+    var node = root;
+
+    for (var index = 0; index < segments.size(); index++) {
+      var segment = segments.get(index);
+
+      if (WILDCARD.equals(segment) && index == segments.size() - 1) {
+        node.descendants = true;
+        return;
+      }
+
+      node = node.children.computeIfAbsent(segment, it -> new Node());
+    }
+
+    node.covered = true;
+    node.subtree |= subsection;
+  }
+
+  private static List<String> segments(String path) {
+    var segments = new ArrayList<String>();
+
+    for (var key : path.split("\\" + SEPARATOR)) {
+      var end = key.length();
+      while (end >= ARRAY.length() && key.startsWith(ARRAY, end - ARRAY.length())) {
+        end -= ARRAY.length();
+      }
+
+      if (end > 0) {
+        segments.add(key.substring(0, end));
+      }
+
+      for (var array = end; array < key.length(); array += ARRAY.length()) {
+        segments.add(ARRAY);
+      }
+    }
+
+    return segments;
+  }
+
+  private static long hash(String path, boolean subsection) {
+    var hash = subsection ? PRIME : 1L;
+
+    for (var index = 0; index < path.length(); index++) {
+      hash = (hash ^ path.charAt(index)) * PRIME;
+    }
+
+    return hash;
+  }
+
+  private static final class Node {
+    private static final Node EVERYTHING = new Node();
+
+    static {
+      EVERYTHING.covered = true;
+      EVERYTHING.subtree = true;
+      EVERYTHING.descendants = true;
+    }
+
+    private final Map<String, Node> children = new HashMap<>();
+    private boolean covered;
+    private boolean subtree;
+    private boolean descendants;
+  }
+
+  /**
+   * Position of a walker in the trie. A path can match several custom paths at once through wildcards.
+   */
+  static final class Cursor {
+    static final Cursor NONE = new Cursor(List.of());
+
+    private final List<Node> nodes;
+
+    private Cursor(List<Node> nodes) {
+      this.nodes = nodes;
+    }
+
+    Cursor child(String key) {
+      return nodes.isEmpty() ? NONE : next(key, true);
+    }
+
+    Cursor element() {
+      return nodes.isEmpty() ? NONE : next(ARRAY, false);
+    }
+
+    /**
+     * A custom field documents this path, so no descriptor is generated for it.
+     */
+    boolean isCovered() {
+      for (var node : nodes) {
+        if (node.covered) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * A custom field documents this path and everything below it, so it is not traversed at all.
+     */
+    boolean isPruned() {
+      for (var node : nodes) {
+        if (node.subtree) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private Cursor next(String segment, boolean matchesWildcard) {
+      var next = new ArrayList<Node>(nodes.size());
+
+      for (var node : nodes) {
+        if (node.descendants) {
+          next.add(Node.EVERYTHING);
+        }
+
+        var child = node.children.get(segment);
+        if (child != null) {
+          next.add(child);
+        }
+
+        var wildcard = matchesWildcard ? node.children.get(WILDCARD) : null;
+        if (wildcard != null) {
+          next.add(wildcard);
+        }
+      }
+
+      return next.isEmpty() ? NONE : new Cursor(next);
+    }
+  }
+}
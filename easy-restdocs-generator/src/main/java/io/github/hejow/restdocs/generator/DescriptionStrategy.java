@@ -0,0 +1,62 @@
+package io.github.hejow.restdocs.generator;
+
+import org.springframework.restdocs.payload.JsonFieldType;
+
+import java.util.Map;
+
+/**
+ * Writes the descriptions of generated field descriptors. <br>
+ * Values are never handed over in full, walkers keep the first non-blank value of a field
+ * cut to {@link #sampleLength()} characters, so the cost of a field doesn't grow with the size of its value.
+ *
+ * <br>
+ *
+ * <pre>
+ * DocsConfiguration.builder()
+ *   .descriptionStrategy(DescriptionStrategy.dictionary(Map.of("data.name", "Name of the user")))
+ *   .build();
+ * </pre>
+ *
+ * @see DocsConfiguration.Builder#descriptionStrategy(DescriptionStrategy)
+ */
+@FunctionalInterface
+public interface DescriptionStrategy {
+  int DEFAULT_SAMPLE_LENGTH = 64;
+
+  /**
+   * @param path   path of the field, such as {@code data[].name}
+   * @param type   type of the field, {@link JsonFieldType#VARIES} when its values differ
+   * @param sample first non-blank value of the field, cut to {@link #sampleLength()} characters and ending with {@code ...} when it was cut.
+   *               {@code null} when the field has none, e.g. empty arrays and {@code null} values.
+   */
+  String describe(String path, JsonFieldType type, String sample);
+
+  /**
+   * Characters of a value kept for {@link #describe(String, JsonFieldType, String)}.
+   */
+  default int sampleLength() {
+    return DEFAULT_SAMPLE_LENGTH;
+  }
+
+  /**
+   * Describes a field with a sample of its value, or with its type when it has none (default).
+   */
+  static DescriptionStrategy samples() {
+    return SampleDescriptions.DEFAULT;
+  }
+
+  static DescriptionStrategy samples(int sampleLength) {
+    return new SampleDescriptions(sampleLength);
+  }
+
+  /**
+   * Looks the description of a field up by its path, fields missing from {@code descriptions} are described by {@link #samples()}.
+   */
+  static DescriptionStrategy dictionary(Map<String, String> descriptions) {
+    return dictionary(descriptions, samples());
+  }
+
+  static DescriptionStrategy dictionary(Map<String, String> descriptions, DescriptionStrategy fallback) {
+    return new DictionaryDescriptions(descriptions, fallback);
+  }
+}
@@ -0,0 +1,86 @@
+package io.github.hejow.restdocs.generator;
+
+import org.springframework.restdocs.payload.FieldDescriptor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of generated descriptors keyed by the structural fingerprint of a body. <br>
+ * Tests documenting the same endpoint with bodies of identical shape reuse one descriptor list.
+ * Descriptions are taken from the body that filled the entry, since values are not part of the fingerprint.
+ *
+ * <br>
+ *
+ * <pre>
+ * var cache = DocsConfiguration.global().getDescriptorCache();
+ * System.out.printf("hits: %d, misses: %d%n", cache.getHitCount(), cache.getMissCount());
+ * </pre>
+ *
+ * @see DocsConfiguration.Builder#descriptorCacheSize(int)
+ */
+public final class DescriptorCache {
+  private final int maximumSize;
+  private final Map<ShapeFingerprint, List<FieldDescriptor>> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  DescriptorCache(int maximumSize) {
+    this.maximumSize = maximumSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<ShapeFingerprint, List<FieldDescriptor>> eldest) {
+        return size() > DescriptorCache.this.maximumSize;
+      }
+    };
+  }
+
+  boolean isEnabled() {
+    return maximumSize > 0;
+  }
+
+  List<FieldDescriptor> get(ShapeFingerprint fingerprint) {
+    List<FieldDescriptor> descriptors;
+    synchronized (entries) {
+      descriptors = entries.get(fingerprint);
+    }
+
+    (descriptors != null ? hits : misses).increment();
+    return descriptors;
+  }
+
+  void put(ShapeFingerprint fingerprint, List<FieldDescriptor> descriptors) {
+    synchronized (entries) {
+      entries.put(fingerprint, List.copyOf(descriptors));
+    }
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+
+    hits.reset();
+    misses.reset();
+  }
+}
@@ -0,0 +1,241 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import org.springframework.restdocs.payload.FieldDescriptor;
+import org.springframework.restdocs.payload.JsonFieldType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.restdocs.payload.PayloadDocumentation.fieldWithPath;
+import static org.springframework.restdocs.payload.PayloadDocumentation.subsectionWithPath;
+
+/**
+ * Folds the fields observed by a walker into descriptors. <br>
+ * When merging, every path is kept once no matter how many array elements carry it,
+ * so a list of N rows costs O(schema) descriptors instead of O(N).
+ *
+ * <br>
+ *
+ * <ul>
+ *   <li>Differing types of one path are unified, {@code null} alongside a type makes the field optional and other mixes become {@link JsonFieldType#VARIES}.</li>
+ *   <li>A field missing from some elements of its enclosing array is optional.</li>
+ *   <li>Fields of arrays whose objects were left out of the {@link ArraySampling} are optional.</li>
+ * </ul>
+ */
+final class DescriptorCollector {
+  private static final String BLANK = "";
+
+  private final boolean merge;
+  private final DescriptionStrategy descriptions;
+  private final Map<FieldPath, FieldRecord> fields = new LinkedHashMap<>();
+  private final Map<FieldPath, ArrayRecord> arrays = new HashMap<>();
+  private final List<FieldDescriptor> descriptors = new ArrayList<>();
+
+  DescriptorCollector(boolean merge, DescriptionStrategy descriptions) {
+    this.merge = merge;
+    this.descriptions = descriptions;
+  }
+
+  /**
+   * @param scope path of the array element the field belongs to, such as {@code data[]}, or the root
+   * @param text  value of the field, already cut to {@link DescriptionStrategy#sampleLength()}
+   */
+  void field(FieldPath path, FieldPath scope, String text, JsonNodeType type) {
+    if (!merge) {
+      descriptors.add(DocsGenerateUtil.toFieldDescriptor(path.toString(), text, type, descriptions));
+      return;
+    }
+
+    fields.computeIfAbsent(path, it -> new FieldRecord(path, scope, type)).observe(text, type);
+  }
+
+  /**
+   * Documents {@code path} and everything below it with one optional subsection, for values that are not walked.
+   */
+  void subsection(FieldPath path, FieldPath scope, JsonNodeType type) {
+    if (!merge) {
+      var subsection = path.toString();
+      descriptors.add(subsectionWithPath(subsection)
+        .description(descriptions.describe(subsection, DocsGenerateUtil.fieldType(type), null))
+        .type(type)
+        .optional());
+      return;
+    }
+
+    var record = fields.computeIfAbsent(path, it -> new FieldRecord(path, scope, type));
+    record.observe(BLANK, type);
+    record.subsection = true;
+  }
+
+  /**
+   * Objects of the array at {@code elementPath} were left out of the sample, so its fields may be missing from them.
+   */
+  void leftOut(FieldPath elementPath) {
+    if (merge) {
+      arrays.computeIfAbsent(elementPath, it -> new ArrayRecord()).leftOut = true;
+    }
+  }
+
+  int sampleLength() {
+    return descriptions.sampleLength();
+  }
+
+  /**
+   * An array at {@code elementPath} was met, {@code containsObjects} tells if any of its (sampled) elements was an object.
+   */
+  void array(FieldPath elementPath, FieldPath scope, boolean containsObjects) {
+    if (merge && containsObjects) {
+      var array = arrays.computeIfAbsent(elementPath, it -> new ArrayRecord());
+      array.scope = scope;
+      array.instances++;
+    }
+  }
+
+  /**
+   * An object element of the array at {@code elementPath} was entered.
+   */
+  void element(FieldPath elementPath) {
+    if (merge) {
+      arrays.computeIfAbsent(elementPath, it -> new ArrayRecord()).elements++;
+    }
+  }
+
+  void addAll(DescriptorCollector other) {
+    descriptors.addAll(other.descriptors);
+
+    other.fields.forEach((path, record) -> fields.merge(path, record, FieldRecord::combine));
+    other.arrays.forEach((path, record) -> arrays.merge(path, record, ArrayRecord::combine));
+  }
+
+  List<FieldDescriptor> toDescriptors() {
+    if (!merge) {
+      return descriptors;
+    }
+
+    var partialScopes = new HashMap<FieldPath, Boolean>();
+
+    return fields.values().stream()
+      .map(record -> record.toDescriptor(count(record.scope) > record.occurrences || isPartial(record.scope, partialScopes), descriptions))
+      .toList();
+  }
+
+  private int count(FieldPath scope) {
+    if (scope.isRoot()) {
+      return 1;
+    }
+
+    var array = arrays.get(scope);
+    return array == null ? 0 : array.elements;
+  }
+
+  /**
+   * A scope is partial when its array is absent, empty or object-free in some elements of the enclosing scope,
+   * or when objects of it were left out of the sample.
+   */
+  private boolean isPartial(FieldPath scope, Map<FieldPath, Boolean> partialScopes) {
+    if (scope.isRoot()) {
+      return false;
+    }
+
+    var cached = partialScopes.get(scope);
+    if (cached != null) {
+      return cached;
+    }
+
+    var array = arrays.get(scope);
+    var partial = array == null
+      || array.leftOut
+      || array.instances == 0
+      || array.instances < count(array.scope)
+      || isPartial(array.scope, partialScopes);
+
+    partialScopes.put(scope, partial);
+    return partial;
+  }
+
+  private static final class FieldRecord {
+    private final FieldPath path;
+    private final FieldPath scope;
+    private JsonNodeType type;
+    private boolean varies;
+    private boolean nullable;
+    private boolean blank;
+    private boolean subsection;
+    private String sample;
+    private int occurrences;
+
+    private FieldRecord(FieldPath path, FieldPath scope, JsonNodeType type) {
+      this.path = path;
+      this.scope = scope;
+      this.type = type;
+    }
+
+    void observe(String text, JsonNodeType observed) {
+      occurrences++;
+      unify(observed);
+
+      if (text.isBlank()) {
+        blank = true;
+      } else if (sample == null && observed != JsonNodeType.NULL) {
+        sample = text;
+      }
+    }
+
+    private void unify(JsonNodeType observed) {
+      if (observed == type) {
+        return;
+      }
+
+      if (observed == JsonNodeType.NULL) {
+        nullable = true;
+      } else if (type == JsonNodeType.NULL) {
+        nullable = true;
+        type = observed;
+      } else {
+        varies = true;
+      }
+    }
+
+    FieldRecord combine(FieldRecord other) {
+      occurrences += other.occurrences;
+      unify(other.type);
+
+      varies |= other.varies;
+      nullable |= other.nullable;
+      blank |= other.blank;
+      subsection |= other.subsection;
+      sample = sample != null ? sample : other.sample;
+      return this;
+    }
+
+    FieldDescriptor toDescriptor(boolean missing, DescriptionStrategy descriptions) {
+      var path = this.path.toString();
+      var fieldType = varies ? JsonFieldType.VARIES : DocsGenerateUtil.fieldType(type);
+
+      var descriptor = (subsection ? subsectionWithPath(path) : fieldWithPath(path))
+        .description(descriptions.describe(path, fieldType, sample))
+        .type(varies ? JsonFieldType.VARIES : type);
+
+      return missing || blank || nullable ? descriptor.optional() : descriptor;
+    }
+  }
+
+  private static final class ArrayRecord {
+    private FieldPath scope;
+    private int instances;
+    private int elements;
+    private boolean leftOut;
+
+    ArrayRecord combine(ArrayRecord other) {
+      scope = instances > 0 ? scope : other.scope;
+      instances += other.instances;
+      elements += other.elements;
+      leftOut |= other.leftOut;
+      return this;
+    }
+  }
+}
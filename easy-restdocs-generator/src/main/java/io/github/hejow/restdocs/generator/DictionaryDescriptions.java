@@ -0,0 +1,31 @@
+package io.github.hejow.restdocs.generator;
+
+import org.springframework.restdocs.payload.JsonFieldType;
+
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link DescriptionStrategy} over descriptions prepared per path, copied once so lookups cost the same for any field.
+ */
+final class DictionaryDescriptions implements DescriptionStrategy {
+  private final Map<String, String> descriptions;
+  private final DescriptionStrategy fallback;
+
+  DictionaryDescriptions(Map<String, String> descriptions, DescriptionStrategy fallback) {
+    this.descriptions = Map.copyOf(requireNonNull(descriptions, "Descriptions cannot be null"));
+    this.fallback = requireNonNull(fallback, "Fallback cannot be null");
+  }
+
+  @Override
+  public String describe(String path, JsonFieldType type, String sample) {
+    var description = descriptions.get(path);
+    return description != null ? description : fallback.describe(path, type, sample);
+  }
+
+  @Override
+  public int sampleLength() {
+    return fallback.sampleLength();
+  }
+}
@@ -0,0 +1,470 @@
+package io.github.hejow.restdocs.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Tuning options for descriptor generation. <br>
+ * Options are applied globally through {@link #setGlobal(DocsConfiguration)}, defaults fit most test suites.
+ * Documentation is turned off altogether with the system property {@code easy-restdocs.enabled=false}.
+ *
+ * <br>
+ *
+ * <pre>
+ * DocsConfiguration.setGlobal(
+ *   DocsConfiguration.builder()
+ *     .parallelThreshold(50_000)
+ *     .virtualThreads(true)
+ *     .arraySampling(ArraySampling.first(100))
+ *     .jsonEngine(JsonEngine.jackson(objectMapper))
+ *     .exampleLimits(ExampleLimits.builder().maxArrayElements(3).build())
+ *     .build()
+ * );
+ * </pre>
+ *
+ * @see Document
+ */
+public final class DocsConfiguration {
+  public static final String ENABLED_PROPERTY = "easy-restdocs.enabled";
+
+  private static final int DISABLED = 0;
+  private static final int DEFAULT_CACHE_SIZE = DISABLED;
+  private static final int DEFAULT_WRITE_QUEUE_CAPACITY = 1024;
+  private static final int DEFAULT_WRITER_THREADS = 4;
+  private static final int DEFAULT_PRETTY_PRINT_LIMIT = 1024 * 1024;
+  private static final int VIRTUAL_THREADS = 0;
+
+  /**
+   * Default executors keyed by parallelism, or {@link #VIRTUAL_THREADS}. Configurations built alike share one,
+   * so replacing the global configuration doesn't leave a pool behind.
+   */
+  private static final Map<Integer, ExecutorService> defaultExecutors = new ConcurrentHashMap<>();
+
+  private static volatile DocsConfiguration global = builder().build();
+
+  private final boolean enabled;
+  private final int parallelThreshold;
+  private final int parallelism;
+  private final boolean virtualThreads;
+  private final ExecutorService parallelExecutor;
+  private final boolean mergeArrays;
+  private final ArraySampling arraySampling;
+  private final TraversalLimits traversalLimits;
+  private final DescriptorCache descriptorCache;
+  private final JsonEngine jsonEngine;
+  private final boolean asyncWrites;
+  private final int writeQueueCapacity;
+  private final int writerThreads;
+  private final boolean snippetStore;
+  private final boolean accumulateSchemas;
+  private final int prettyPrintLimit;
+  private final ExampleLimits exampleLimits;
+  private final DescriptionStrategy descriptionStrategy;
+  private final List<DocsListener> listeners;
+
+  private DocsConfiguration(Builder builder) {
+    this.enabled = builder.enabled;
+    this.parallelThreshold = builder.parallelThreshold;
+    this.parallelism = builder.parallelism;
+    this.virtualThreads = builder.virtualThreads;
+    this.parallelExecutor = builder.parallelExecutor;
+    this.mergeArrays = builder.mergeArrays;
+    this.arraySampling = builder.arraySampling;
+    this.traversalLimits = builder.traversalLimits;
+    this.descriptorCache = new DescriptorCache(builder.descriptorCacheSize);
+    this.jsonEngine = builder.jsonEngine;
+    this.asyncWrites = builder.asyncWrites;
+    this.writeQueueCapacity = builder.writeQueueCapacity;
+    this.writerThreads = builder.writerThreads;
+    this.snippetStore = builder.snippetStore;
+    this.accumulateSchemas = builder.accumulateSchemas;
+    this.prettyPrintLimit = builder.prettyPrintLimit;
+    this.exampleLimits = builder.exampleLimits;
+    this.descriptionStrategy = builder.descriptionStrategy;
+    this.listeners = List.copyOf(builder.listeners);
+  }
+
+  public static DocsConfiguration global() {
+    return global;
+  }
+
+  public static void setGlobal(DocsConfiguration configuration) {
+    global = requireNonNull(configuration, "Configuration cannot be null");
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public Builder toBuilder() {
+    return new Builder()
+      .enabled(enabled)
+      .parallelThreshold(parallelThreshold)
+      .parallelism(parallelism)
+      .virtualThreads(virtualThreads)
+      .parallelExecutor(parallelExecutor)
+      .mergeArrays(mergeArrays)
+      .arraySampling(arraySampling)
+      .traversalLimits(traversalLimits)
+      .descriptorCacheSize(descriptorCache.getMaximumSize())
+      .jsonEngine(jsonEngine)
+      .asyncWrites(asyncWrites)
+      .writeQueueCapacity(writeQueueCapacity)
+      .writerThreads(writerThreads)
+      .snippetStore(snippetStore)
+      .accumulateSchemas(accumulateSchemas)
+      .prettyPrintLimit(prettyPrintLimit)
+      .exampleLimits(exampleLimits)
+      .descriptionStrategy(descriptionStrategy)
+      .listeners(listeners);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public boolean isParallel() {
+    return parallelThreshold > DISABLED;
+  }
+
+  public int getParallelThreshold() {
+    return parallelThreshold;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public boolean isMergeArrays() {
+    return mergeArrays;
+  }
+
+  public ArraySampling getArraySampling() {
+    return arraySampling;
+  }
+
+  public TraversalLimits getTraversalLimits() {
+    return traversalLimits;
+  }
+
+  public DescriptorCache getDescriptorCache() {
+    return descriptorCache;
+  }
+
+  /**
+   * @return the configured engine, or {@code null} when it is detected per request
+   */
+  public JsonEngine getJsonEngine() {
+    return jsonEngine;
+  }
+
+  public boolean isAsyncWrites() {
+    return asyncWrites;
+  }
+
+  public int getWriteQueueCapacity() {
+    return writeQueueCapacity;
+  }
+
+  public int getWriterThreads() {
+    return writerThreads;
+  }
+
+  public boolean isSnippetStore() {
+    return snippetStore;
+  }
+
+  public boolean isAccumulateSchemas() {
+    return accumulateSchemas;
+  }
+
+  public int getPrettyPrintLimit() {
+    return prettyPrintLimit;
+  }
+
+  public ExampleLimits getExampleLimits() {
+    return exampleLimits;
+  }
+
+  public DescriptionStrategy getDescriptionStrategy() {
+    return descriptionStrategy;
+  }
+
+  public List<DocsListener> getListeners() {
+    return listeners;
+  }
+
+  /**
+   * Parallel walks and random samples both need the whole body as a tree, everything else is streamed.
+   */
+  boolean requiresTree() {
+    return splitsWalks() || arraySampling.isRandom();
+  }
+
+  /**
+   * Walks bounded by {@link TraversalLimits#getMaxFields()} stay sequential, so they stop at the same field on every run.
+   */
+  boolean splitsWalks() {
+    return isParallel() && !traversalLimits.limitsFields();
+  }
+
+  ExecutorService executor() {
+    if (parallelExecutor != null) {
+      return parallelExecutor;
+    }
+
+    return defaultExecutors.computeIfAbsent(
+      virtualThreads ? VIRTUAL_THREADS : parallelism,
+      key -> virtualThreads ? newVirtualThreadExecutor() : newPlatformThreadExecutor()
+    );
+  }
+
+  AsyncSnippetWriter snippetWriter() {
+    return AsyncSnippetWriter.shared(writeQueueCapacity, writerThreads);
+  }
+
+  private ExecutorService newPlatformThreadExecutor() {
+    var sequence = new AtomicInteger();
+
+    ThreadFactory threadFactory = runnable -> {
+      var thread = new Thread(runnable, "easy-restdocs-traversal-" + sequence.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+
+    return Executors.newFixedThreadPool(parallelism, threadFactory);
+  }
+
+  /**
+   * Virtual threads need JDK 21 at runtime while the library targets 17, so the factory is looked up reflectively.
+   * Falls back to platform threads on older runtimes.
+   */
+  private ExecutorService newVirtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException exception) {
+      return newPlatformThreadExecutor();
+    }
+  }
+
+  public static class Builder {
+    private boolean enabled = Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    private int parallelThreshold = DISABLED;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean virtualThreads;
+    private ExecutorService parallelExecutor;
+    private boolean mergeArrays = true;
+    private ArraySampling arraySampling = ArraySampling.all();
+    private TraversalLimits traversalLimits = TraversalLimits.none();
+    private int descriptorCacheSize = DEFAULT_CACHE_SIZE;
+    private JsonEngine jsonEngine;
+    private boolean asyncWrites;
+    private int writeQueueCapacity = DEFAULT_WRITE_QUEUE_CAPACITY;
+    private int writerThreads = Math.min(DEFAULT_WRITER_THREADS, Runtime.getRuntime().availableProcessors());
+    private boolean snippetStore;
+    private boolean accumulateSchemas;
+    private int prettyPrintLimit = DEFAULT_PRETTY_PRINT_LIMIT;
+    private ExampleLimits exampleLimits = ExampleLimits.none();
+    private DescriptionStrategy descriptionStrategy = DescriptionStrategy.samples();
+    private List<DocsListener> listeners = new ArrayList<>();
+
+    private Builder() {
+    }
+
+    /**
+     * {@code false} turns the handler of {@link Document#generate()} into a no-op, nothing is parsed or written.
+     * Defaults to the system property {@value #ENABLED_PROPERTY}, or {@code true}.
+     */
+    public Builder enabled(boolean enabled) {
+      this.enabled = enabled;
+      return this;
+    }
+
+    /**
+     * Bodies with at least this many JSON nodes are walked in parallel. {@code 0} (default) keeps every walk sequential.
+     */
+    public Builder parallelThreshold(int parallelThreshold) {
+      if (parallelThreshold < DISABLED) {
+        throw new IllegalArgumentException("Parallel threshold cannot be negative");
+      }
+
+      this.parallelThreshold = parallelThreshold;
+      return this;
+    }
+
+    public Builder parallelism(int parallelism) {
+      if (parallelism < 1) {
+        throw new IllegalArgumentException("Parallelism must be positive");
+      }
+
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    public Builder virtualThreads(boolean virtualThreads) {
+      this.virtualThreads = virtualThreads;
+      return this;
+    }
+
+    /**
+     * Runs parallel walks on the given executor instead of the dedicated one created on first use.
+     * The dedicated executor is shared by every configuration with the same parallelism and lives as long as the JVM.
+     */
+    public Builder parallelExecutor(ExecutorService parallelExecutor) {
+      this.parallelExecutor = parallelExecutor;
+      return this;
+    }
+
+    /**
+     * Folds the elements of every array into one set of descriptors (default). {@code false} emits descriptors per element.
+     */
+    public Builder mergeArrays(boolean mergeArrays) {
+      this.mergeArrays = mergeArrays;
+      return this;
+    }
+
+    public Builder arraySampling(ArraySampling arraySampling) {
+      this.arraySampling = requireNonNull(arraySampling, "Array sampling cannot be null");
+      return this;
+    }
+
+    /**
+     * Bounds the depth and the number of fields inspected per body. Defaults to {@link TraversalLimits#none()}.
+     */
+    public Builder traversalLimits(TraversalLimits traversalLimits) {
+      this.traversalLimits = requireNonNull(traversalLimits, "Traversal limits cannot be null");
+      return this;
+    }
+
+    /**
+     * Maximum number of body shapes whose descriptors are kept, {@code 0} disables the cache. Defaults to {@code 0}. <br>
+     * A cached body of the same shape, possibly of another endpoint, lends its values to the descriptions of later bodies.
+     */
+    public Builder descriptorCacheSize(int descriptorCacheSize) {
+      if (descriptorCacheSize < DISABLED) {
+        throw new IllegalArgumentException("Descriptor cache size cannot be negative");
+      }
+
+      this.descriptorCacheSize = descriptorCacheSize;
+      return this;
+    }
+
+    /**
+     * Engine used for every document, {@code null} (default) detects the {@code ObjectMapper} of the Spring context under test.
+     */
+    public Builder jsonEngine(JsonEngine jsonEngine) {
+      this.jsonEngine = jsonEngine;
+      return this;
+    }
+
+    /**
+     * Writes snippets on a background thread, see {@link AsyncSnippetWriter}.
+     */
+    public Builder asyncWrites(boolean asyncWrites) {
+      this.asyncWrites = asyncWrites;
+      return this;
+    }
+
+    /**
+     * Snippets waiting to be written before documented calls block. Defaults to 1024.
+     */
+    public Builder writeQueueCapacity(int writeQueueCapacity) {
+      if (writeQueueCapacity < 1) {
+        throw new IllegalArgumentException("Write queue capacity must be positive");
+      }
+
+      this.writeQueueCapacity = writeQueueCapacity;
+      return this;
+    }
+
+    /**
+     * Threads writing snippets, each owns a stripe of identifiers. Defaults to 4, or less on smaller machines.
+     */
+    public Builder writerThreads(int writerThreads) {
+      if (writerThreads < 1) {
+        throw new IllegalArgumentException("Writer threads must be positive");
+      }
+
+      this.writerThreads = writerThreads;
+      return this;
+    }
+
+    /**
+     * Appends snippets to one file per test JVM instead of a directory per call, see {@link SnippetStore}.
+     * Takes precedence over {@link #asyncWrites(boolean)}.
+     */
+    public Builder snippetStore(boolean snippetStore) {
+      this.snippetStore = snippetStore;
+      return this;
+    }
+
+    /**
+     * Folds the descriptors of every call documenting the same endpoint into one schema, written when the run finishes.
+     * See {@link SchemaAccumulator}.
+     */
+    public Builder accumulateSchemas(boolean accumulateSchemas) {
+      this.accumulateSchemas = accumulateSchemas;
+      return this;
+    }
+
+    /**
+     * JSON bodies larger than this many bytes are documented without pretty printing. Defaults to 1 MiB.
+     */
+    public Builder prettyPrintLimit(int prettyPrintLimit) {
+      if (prettyPrintLimit < 0) {
+        throw new IllegalArgumentException("Pretty print limit cannot be negative");
+      }
+
+      this.prettyPrintLimit = prettyPrintLimit;
+      return this;
+    }
+
+    /**
+     * Bounds the request and response examples of every document, descriptors are not affected. Defaults to {@link ExampleLimits#none()}.
+     */
+    public Builder exampleLimits(ExampleLimits exampleLimits) {
+      this.exampleLimits = requireNonNull(exampleLimits, "Example limits cannot be null");
+      return this;
+    }
+
+    /**
+     * Describes generated fields. Defaults to {@link DescriptionStrategy#samples()}, a sample of the value cut to 64 characters.
+     */
+    public Builder descriptionStrategy(DescriptionStrategy descriptionStrategy) {
+      this.descriptionStrategy = requireNonNull(descriptionStrategy, "Description strategy cannot be null");
+      return this;
+    }
+
+    /**
+     * Adds a listener receiving the {@link DocumentMetrics} of every documented call.
+     */
+    public Builder listener(DocsListener listener) {
+      listeners.add(requireNonNull(listener, "Listener cannot be null"));
+      return this;
+    }
+
+    /**
+     * Replaces the listeners added so far.
+     */
+    public Builder listeners(List<DocsListener> listeners) {
+      this.listeners = new ArrayList<>(requireNonNull(listeners, "Listeners cannot be null"));
+      return this;
+    }
+
+    public DocsConfiguration build() {
+      return new DocsConfiguration(this);
+    }
+  }
+}
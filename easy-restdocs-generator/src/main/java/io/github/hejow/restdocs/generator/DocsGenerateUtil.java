@@ -1,35 +1,31 @@
 package io.github.hejow.restdocs.generator;
 
 import com.epages.restdocs.apispec.ParameterDescriptorWithType;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.restdocs.payload.FieldDescriptor;
+import org.springframework.restdocs.payload.JsonFieldType;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 import static com.epages.restdocs.apispec.ResourceDocumentation.parameterWithName;
-import static java.util.Spliterator.ORDERED;
-import static java.util.Spliterators.spliteratorUnknownSize;
 import static org.springframework.restdocs.payload.PayloadDocumentation.fieldWithPath;
 import static org.springframework.web.servlet.HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE;
 
 final class DocsGenerateUtil {
-  private static final Function<List<ParameterDescriptorWithType>, List<String>> PARAMETER_NAME_PARSER = parameters -> parameters.stream()
+  private static final Function<List<ParameterDescriptorWithType>, Set<String>> PARAMETER_NAME_PARSER = parameters -> parameters.stream()
     .map(ParameterDescriptorWithType::getName)
-    .toList();
-
-  private static final Function<List<FieldDescriptor>, List<String>> PATH_PARSER = fields -> fields.stream()
-    .map(FieldDescriptor::getPath)
-    .toList();
+    .collect(Collectors.toSet());
 
   private static final Predicate<String> IS_SUPPORT_TYPE = "application/json;charset=UTF-8"::contains;
 
@@ -41,31 +37,107 @@ final class DocsGenerateUtil {
     throw new AssertionError("Can't be initialize!");
   }
 
-  public static List<FieldDescriptor> requestFields(MockHttpServletRequest request, List<FieldDescriptor> customRequestFields) {
-    var tree = JsonParser.readTree(request::getContentAsString);
+  public static List<FieldDescriptor> requestFields(
+    MockHttpServletRequest request,
+    List<FieldDescriptor> customRequestFields,
+    JsonEngine engine,
+    PrettyBody prettyBody,
+    DocumentRecorder recorder
+  ) {
+    var content = request.getContentAsByteArray();
 
-    Stream<FieldDescriptor> requestFieldStream = tree != null ? toObjectDescriptors(tree, BLANK) : Stream.empty();
+    Stream<FieldDescriptor> requestFieldStream = content != null
+      ? extract(content, request::getContentAsString, CustomFieldIndex.of(customRequestFields), engine, prettyBody, recorder)
+      : Stream.empty();
 
-    return merge(() -> requestFieldStream, customRequestFields);
+    return merge(requestFieldStream, customRequestFields);
   }
 
-  public static List<FieldDescriptor> responseFields(MockHttpServletResponse response, List<FieldDescriptor> customResponseFields) {
+  public static List<FieldDescriptor> responseFields(
+    MockHttpServletResponse response,
+    List<FieldDescriptor> customResponseFields,
+    JsonEngine engine,
+    PrettyBody prettyBody,
+    DocumentRecorder recorder
+  ) {
     if (isNotJsonOrNoContent(response)) {
       return Collections.emptyList();
     }
 
-    var tree = Objects.requireNonNull(JsonParser.readTree(response::getContentAsString), NULL_RESPONSE_BODY);
+    var content = Objects.requireNonNull(response.getContentAsByteArray(), NULL_RESPONSE_BODY);
 
-    return merge(() -> toObjectDescriptors(tree, BLANK), customResponseFields);
+    var responseFieldStream = extract(
+      content,
+      response::getContentAsString,
+      CustomFieldIndex.of(customResponseFields),
+      engine,
+      prettyBody,
+      recorder
+    );
+
+    return merge(responseFieldStream, customResponseFields);
   }
 
-  private static List<FieldDescriptor> merge(Supplier<Stream<FieldDescriptor>> fields, List<FieldDescriptor> customFields) {
-    var customPaths = PATH_PARSER.apply(customFields);
+  /**
+   * Streams descriptors out of the raw body in a single pass, or walks its tree when the configuration requires one. <br>
+   * Bodies shaped like a previously documented one are served from the {@link DescriptorCache}.
+   * Bodies that are not valid UTF-8 JSON (e.g. written with another declared charset)
+   * fall back to the tree walker, which decodes through {@code contentSupplier}.
+   * Fields overridden by {@code customFields} are never generated.
+   * The first pass over the body also fills {@code prettyBody}, so the snippet doesn't parse it again.
+   * Passes that only read the body are recorded as parsing, the ones producing descriptors as extraction.
+   */
+  private static Stream<FieldDescriptor> extract(
+    byte[] content,
+    ContentSupplier contentSupplier,
+    CustomFieldIndex customFields,
+    JsonEngine engine,
+    PrettyBody prettyBody,
+    DocumentRecorder recorder
+  ) {
+    var configuration = DocsConfiguration.global();
+    var cache = configuration.getDescriptorCache();
+    recorder.body(content.length);
+
+    var start = System.nanoTime();
+    try {
+      var fingerprint = cache.isEnabled() ? ShapeFingerprint.of(content, engine, configuration, customFields, prettyBody.copy(content, engine)) : null;
+      recorder.parsed(start);
+
+      var cached = fingerprint != null ? cache.get(fingerprint) : null;
+      if (cached != null) {
+        return cached.stream();
+      }
+
+      List<FieldDescriptor> descriptors;
+      if (configuration.requiresTree()) {
+        start = System.nanoTime();
+        var tree = engine.readTree(content);
+        prettyBody.print(content, tree, engine);
+        recorder.parsed(start);
+
+        start = System.nanoTime();
+        descriptors = TreeFieldExtractor.extract(tree, configuration, customFields);
+      } else {
+        start = System.nanoTime();
+        descriptors = StreamingFieldExtractor.extract(content, engine, configuration, customFields, prettyBody.copy(content, engine));
+      }
+      recorder.extracted(start);
+
+      if (fingerprint != null) {
+        cache.put(fingerprint, descriptors);
+      }
+
+      return descriptors.stream();
+    } catch (IOException exception) {
+      var descriptors = TreeFieldExtractor.extract(JsonParser.readTree(contentSupplier, engine), configuration, customFields);
+      recorder.extracted(start);
+      return descriptors.stream();
+    }
+  }
 
-    return Stream.concat(
-      customFields.stream(),
-      fields.get().filter(it -> !customPaths.contains(it.getPath()))
-    ).toList();
+  private static List<FieldDescriptor> merge(Stream<FieldDescriptor> fields, List<FieldDescriptor> customFields) {
+    return Stream.concat(customFields.stream(), fields).toList();
   }
 
   private static boolean isNotJsonOrNoContent(MockHttpServletResponse response) {
@@ -100,39 +172,49 @@ final class DocsGenerateUtil {
     return Stream.concat(customPathVariables.stream(), pathVariableStream).toList();
   }
 
-  private static Stream<FieldDescriptor> toObjectDescriptors(JsonNode tree, String parentPath) {
-    return StreamSupport.stream(spliteratorUnknownSize(tree.fields(), ORDERED), true)
-      .flatMap(it -> dispatch(it.getValue(), nextObjectPath(it.getKey(), parentPath)));
-  }
+  static FieldDescriptor toFieldDescriptor(String path, String text, JsonNodeType type, DescriptionStrategy descriptions) {
+    var sample = text.isBlank() || type == JsonNodeType.NULL ? null : text;
+    var fieldDescriptor = fieldWithPath(path).description(descriptions.describe(path, fieldType(type), sample)).type(type);
 
-  private static Stream<FieldDescriptor> dispatch(JsonNode node, String path) {
-    return switch (node.getNodeType()) {
-      case OBJECT -> toObjectDescriptors(node, path);
-      case ARRAY -> toArrayDescriptors(node, path);
-      default -> toFieldDescriptor(node, path);
-    };
+    return text.isBlank() ? fieldDescriptor.optional() : fieldDescriptor;
   }
 
-  private static Stream<FieldDescriptor> toArrayDescriptors(JsonNode node, String parentPath) {
-    return node.isEmpty()
-      ? toFieldDescriptor(node, parentPath)
-      : StreamSupport.stream(spliteratorUnknownSize(node.elements(), ORDERED), true)
-      .flatMap(it -> it.isObject() ? toObjectDescriptors(it, nextArrayPath(parentPath)) : toFieldDescriptor(node, parentPath));
+  static JsonFieldType fieldType(JsonNodeType type) {
+    return switch (type) {
+      case ARRAY -> JsonFieldType.ARRAY;
+      case BOOLEAN -> JsonFieldType.BOOLEAN;
+      case NULL -> JsonFieldType.NULL;
+      case NUMBER -> JsonFieldType.NUMBER;
+      case OBJECT, POJO -> JsonFieldType.OBJECT;
+      case STRING -> JsonFieldType.STRING;
+      default -> JsonFieldType.VARIES;
+    };
   }
 
-  private static Stream<FieldDescriptor> toFieldDescriptor(JsonNode node, String path) {
-    var text = node.asText();
+  /**
+   * Cuts {@code text} to {@code length} characters for a {@link DescriptionStrategy}, blank values stay blank.
+   * Only the kept characters are copied, so it costs the same for any value.
+   */
+  static String sample(CharSequence text, int length) {
+    if (text.length() <= length) {
+      return text.toString();
+    }
 
-    var fieldDescriptor = fieldWithPath(path).description(text).type(node.getNodeType());
+    if (isBlank(text)) {
+      return BLANK;
+    }
 
-    return Stream.of(text.isBlank() ? fieldDescriptor.optional() : fieldDescriptor);
+    var end = length > 0 && Character.isHighSurrogate(text.charAt(length - 1)) ? length - 1 : length;
+    return text.subSequence(0, end) + ExampleLimits.TRUNCATED;
   }
 
-  private static String nextArrayPath(String parentPath) {
-    return "%s[]".formatted(parentPath);
-  }
+  static boolean isBlank(CharSequence text) {
+    for (var index = 0; index < text.length(); index++) {
+      if (!Character.isWhitespace(text.charAt(index))) {
+        return false;
+      }
+    }
 
-  private static String nextObjectPath(String currentField, String parentPath) {
-    return parentPath.isBlank() ? currentField : "%s.%s".formatted(parentPath, currentField);
+    return true;
   }
 }
@@ -0,0 +1,21 @@
+package io.github.hejow.restdocs.generator;
+
+/**
+ * Receives the cost of every documented call, e.g. to find the endpoints that make a documentation suite slow. <br>
+ * Listeners are called on the test thread once the call is documented, so they should stay cheap.
+ *
+ * <br>
+ *
+ * <pre>
+ * DocsConfiguration.builder()
+ *   .listener(metrics -> log.info("{} took {}", metrics.getIdentifier(), metrics.getTotalTime()))
+ *   .build();
+ * </pre>
+ *
+ * @see DocsConfiguration.Builder#listener(DocsListener)
+ * @see DocsReport
+ */
+@FunctionalInterface
+public interface DocsListener {
+  void documented(DocumentMetrics metrics);
+}
@@ -0,0 +1,153 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Reports the cost of every documented identifier when the JUnit run finishes, registered through {@code META-INF/services}. <br>
+ * Enabled with the system property {@value #REPORT_PROPERTY}, the directory the report is written to.
+ * Each test JVM writes {@code easy-restdocs-report-<pid>.json} and prints its slowest and biggest identifiers,
+ * {@value #TOP_PROPERTY} of each (10 by default). The Gradle plugin enables it for {@code docsTest}.
+ *
+ * <br>
+ *
+ * Calls documenting the same identifier, e.g. a parameterized test, are summed up.
+ *
+ * @see DocsListener
+ */
+public final class DocsReport implements TestExecutionListener {
+  public static final String REPORT_PROPERTY = "easy-restdocs.report";
+  public static final String TOP_PROPERTY = "easy-restdocs.report.top";
+
+  private static final int DEFAULT_TOP = 10;
+  private static final String FILE_NAME = "easy-restdocs-report-%d.json";
+  private static final String DIRECTORY = System.getProperty(REPORT_PROPERTY);
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  static void record(DocumentMetrics metrics) {
+    if (DIRECTORY != null) {
+      entries.computeIfAbsent(metrics.getIdentifier(), Entry::new).add(metrics);
+    }
+  }
+
+  @Override
+  public void testPlanExecutionFinished(TestPlan testPlan) {
+    if (DIRECTORY == null || entries.isEmpty()) {
+      return;
+    }
+
+    var report = new ArrayList<>(entries.values());
+    entries.clear();
+    report.sort(Comparator.comparingLong(Entry::totalNanos).reversed());
+
+    var file = new File(DIRECTORY, FILE_NAME.formatted(ProcessHandle.current().pid()));
+    write(report, file);
+    print(report, file, Integer.getInteger(TOP_PROPERTY, DEFAULT_TOP));
+  }
+
+  private static void write(List<Entry> report, File file) {
+    file.getParentFile().mkdirs();
+
+    try (var generator = JSON_FACTORY.createGenerator(file, JsonEncoding.UTF8)) {
+      generator.useDefaultPrettyPrinter();
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("operations");
+
+      for (var entry : report) {
+        generator.writeStartObject();
+        generator.writeStringField("identifier", entry.identifier);
+        generator.writeNumberField("calls", entry.calls);
+        generator.writeNumberField("totalMillis", millis(entry.totalNanos()));
+        generator.writeNumberField("parseMillis", millis(entry.parseNanos));
+        generator.writeNumberField("extractionMillis", millis(entry.extractionNanos));
+        generator.writeNumberField("writeMillis", millis(entry.writeNanos));
+        generator.writeNumberField("bodyBytes", entry.bodyBytes);
+        generator.writeNumberField("descriptors", entry.descriptorCount);
+        generator.writeEndObject();
+      }
+
+      generator.writeEndArray();
+      generator.writeEndObject();
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Failed to write documentation report " + file, exception);
+    }
+  }
+
+  private static void print(List<Entry> report, File file, int top) {
+    var output = new StringBuilder()
+      .append("easy-restdocs: %d identifiers documented, report written to %s%n".formatted(report.size(), file));
+
+    top(output, "Slowest", report, Entry::totalNanos, top, entry -> "%10.1f ms".formatted(millis(entry.totalNanos())));
+    top(output, "Biggest", report, entry -> entry.bodyBytes, top, entry -> "%10.1f KiB".formatted(entry.bodyBytes / 1024.0));
+
+    System.out.print(output);
+  }
+
+  private static void top(
+    StringBuilder output,
+    String title,
+    List<Entry> report,
+    ToLongFunction<Entry> measure,
+    int top,
+    Function<Entry, String> format
+  ) {
+    output.append(title).append(System.lineSeparator());
+
+    report.stream()
+      .sorted(Comparator.comparingLong(measure).reversed())
+      .limit(top)
+      .forEach(entry -> output.append("  %s  %s (calls: %d, descriptors: %d)%n".formatted(
+        format.apply(entry), entry.identifier, entry.calls, entry.descriptorCount
+      )));
+  }
+
+  private static double millis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  /**
+   * Sums of the calls documenting one identifier, the descriptor count is the largest one.
+   */
+  private static final class Entry {
+    private final String identifier;
+    private int calls;
+    private long parseNanos;
+    private long extractionNanos;
+    private long writeNanos;
+    private long bodyBytes;
+    private int descriptorCount;
+
+    private Entry(String identifier) {
+      this.identifier = identifier;
+    }
+
+    synchronized void add(DocumentMetrics metrics) {
+      calls++;
+      parseNanos += metrics.getParseTime().toNanos();
+      extractionNanos += metrics.getExtractionTime().toNanos();
+      writeNanos += metrics.getWriteTime().toNanos();
+      bodyBytes += metrics.getBodyBytes();
+      descriptorCount = Math.max(descriptorCount, metrics.getDescriptorCount());
+    }
+
+    synchronized long totalNanos() {
+      return parseNanos + extractionNanos + writeNanos;
+    }
+  }
+}
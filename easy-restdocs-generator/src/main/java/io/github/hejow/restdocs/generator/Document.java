@@ -4,26 +4,38 @@ import com.epages.restdocs.apispec.ParameterDescriptorWithType;
 import com.epages.restdocs.apispec.ResourceSnippetParameters;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.generate.RestDocumentationGenerator;
+import org.springframework.restdocs.mockmvc.MockMvcRestDocumentation;
 import org.springframework.restdocs.mockmvc.RestDocumentationResultHandler;
+import org.springframework.restdocs.operation.Operation;
+import org.springframework.restdocs.operation.OperationRequest;
+import org.springframework.restdocs.operation.OperationResponse;
+import org.springframework.restdocs.operation.preprocess.OperationPreprocessor;
 import org.springframework.restdocs.payload.FieldDescriptor;
+import org.springframework.restdocs.snippet.Snippet;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import static com.epages.restdocs.apispec.MockMvcRestDocumentationWrapper.document;
 import static com.epages.restdocs.apispec.ResourceDocumentation.resource;
 import static java.util.Objects.requireNonNull;
-import static org.springframework.restdocs.operation.preprocess.Preprocessors.*;
+import static org.springframework.restdocs.operation.preprocess.Preprocessors.preprocessRequest;
+import static org.springframework.restdocs.operation.preprocess.Preprocessors.preprocessResponse;
 
 /**
  * Builders class to prevent human error such as typos. <br>
- * If class safely created can call `generateDocs()` to create `RestDocumentationResultHandler`
+ * If class safely created can call `generate()` or `buildAndGenerate()` to create `RestDocumentationResultHandler`,
+ * which only documents once it is run.
  *
  * @see ApiTag
  */
 public class Document {
   private static final String DEFAULT_IDENTIFIER = "{method_name}";
+  private static final String CONFIGURATION_ATTRIBUTE = "org.springframework.restdocs.configuration";
 
   private final String identifier;
   private final String tag;
@@ -35,6 +47,8 @@ public class Document {
   private final List<FieldDescriptor> customResponseFields;
   private final List<ParameterDescriptorWithType> customRequestParameters;
   private final List<ParameterDescriptorWithType> customPathVariables;
+  private final JsonEngine jsonEngine;
+  private final ExampleLimits exampleLimits;
 
   public Document(
     String identifier,
@@ -47,6 +61,64 @@ public class Document {
     List<FieldDescriptor> customResponseFields,
     List<ParameterDescriptorWithType> customRequestParameters,
     List<ParameterDescriptorWithType> customPathVariables
+  ) {
+    this(
+      identifier,
+      tag,
+      summary,
+      description,
+      request,
+      response,
+      customRequestFields,
+      customResponseFields,
+      customRequestParameters,
+      customPathVariables,
+      null
+    );
+  }
+
+  public Document(
+    String identifier,
+    String tag,
+    String summary,
+    String description,
+    MockHttpServletRequest request,
+    MockHttpServletResponse response,
+    List<FieldDescriptor> customRequestFields,
+    List<FieldDescriptor> customResponseFields,
+    List<ParameterDescriptorWithType> customRequestParameters,
+    List<ParameterDescriptorWithType> customPathVariables,
+    JsonEngine jsonEngine
+  ) {
+    this(
+      identifier,
+      tag,
+      summary,
+      description,
+      request,
+      response,
+      customRequestFields,
+      customResponseFields,
+      customRequestParameters,
+      customPathVariables,
+      jsonEngine,
+      null
+    );
+  }
+
+  public Document(
+    String identifier,
+    String tag,
+    String summary,
+    String description,
+    MockHttpServletRequest request,
+    MockHttpServletResponse response,
+    List<FieldDescriptor> customRequestFields,
+    List<FieldDescriptor> customResponseFields,
+    List<ParameterDescriptorWithType> customRequestParameters,
+    List<ParameterDescriptorWithType> customPathVariables,
+    JsonEngine jsonEngine,
+    ExampleLimits exampleLimits
   ) {
     requireNonNull(tag, "Tag cannot be null");
     this.identifier = identifier;
@@ -59,31 +131,137 @@ public class Document {
     this.customResponseFields = customResponseFields == null ? Collections.emptyList() : customResponseFields;
     this.customRequestParameters = customRequestParameters == null ? Collections.emptyList() : customRequestParameters;
     this.customPathVariables = customPathVariables == null ? Collections.emptyList() : customPathVariables;
+    this.jsonEngine = jsonEngine != null ? jsonEngine : DocsConfiguration.global().getJsonEngine();
+    this.exampleLimits = exampleLimits != null ? exampleLimits : DocsConfiguration.global().getExampleLimits();
   }
 
   public static Builder builder() {
     return new Builder();
   }
 
+  /**
+   * Descriptors are computed when the returned handler runs, not when it is created,
+   * and the handler writes nothing when documentation is disabled, see {@link DocsConfiguration#isEnabled()}. <br>
+   * Identifiers shared by two tests are rejected, snippets go through {@link AsyncSnippetWriter} or {@link SnippetStore} when configured,
+   * and the {@link DocumentMetrics} are reported once the last snippet was written, see {@link DocsListener}.
+   */
   public RestDocumentationResultHandler generate() {
-    return document(
-      identifier == null ? DEFAULT_IDENTIFIER : identifier,
-      preprocessRequest(prettyPrint()),
-      preprocessResponse(prettyPrint()),
-      resource(
-        ResourceSnippetParameters.builder()
-          .tag(tag)
-          .summary(summary)
-          .description(description)
-          .requestFields(DocsGenerateUtil.requestFields(request, customRequestFields))
-          .responseFields(DocsGenerateUtil.responseFields(response, customResponseFields))
-          .queryParameters(DocsGenerateUtil.queryParameters(request, customRequestParameters))
-          .pathParameters(DocsGenerateUtil.pathVariables(request, customPathVariables))
-          .build()
-      )
+    var configuration = DocsConfiguration.global();
+
+    if (!configuration.isEnabled()) {
+      return skipped();
+    }
+
+    IdentifierRegistry.register(request, identifier());
+
+    if (configuration.isSnippetStore()) {
+      SnippetStore.install(request);
+    } else if (configuration.isAsyncWrites()) {
+      configuration.snippetWriter().install(request);
+    }
+
+    var deferred = new Deferred(new DocumentRecorder());
+
+    return MockMvcRestDocumentation.document(
+      identifier(),
+      preprocessRequest(deferred),
+      preprocessResponse(deferred),
+      deferred::document,
+      deferred::complete
     );
   }
 
+  /**
+   * Drops the default snippets of the call, so the handler has nothing to write.
+   */
+  @SuppressWarnings("unchecked")
+  private RestDocumentationResultHandler skipped() {
+    if (request.getAttribute(CONFIGURATION_ATTRIBUTE) instanceof Map<?, ?> configuration) {
+      var skipped = new HashMap<>((Map<String, Object>) configuration);
+      skipped.put(RestDocumentationGenerator.ATTRIBUTE_NAME_DEFAULT_SNIPPETS, List.of());
+      request.setAttribute(CONFIGURATION_ATTRIBUTE, skipped);
+    }
+
+    return MockMvcRestDocumentation.document(identifier());
+  }
+
+  String identifier() {
+    return identifier == null ? DEFAULT_IDENTIFIER : identifier;
+  }
+
+  /**
+   * Computes the descriptors and the printed bodies once, when REST Docs preprocesses the request of the handler.
+   * REST Docs writes its default snippets before {@link #document(Operation)} and {@link #complete(Operation)}, which runs last,
+   * so the write time spans every snippet of the call.
+   */
+  private final class Deferred implements OperationPreprocessor {
+    private final DocumentRecorder recorder;
+    private JsonPrettyPrinter prettyPrinter;
+    private Snippet resource;
+    private long writeStart;
+
+    private Deferred(DocumentRecorder recorder) {
+      this.recorder = recorder;
+    }
+
+    @Override
+    public OperationRequest preprocess(OperationRequest operationRequest) {
+      compute();
+      return prettyPrinter.preprocess(operationRequest);
+    }
+
+    @Override
+    public OperationResponse preprocess(OperationResponse operationResponse) {
+      compute();
+      var preprocessed = prettyPrinter.preprocess(operationResponse);
+
+      writeStart = System.nanoTime();
+      return preprocessed;
+    }
+
+    void document(Operation operation) throws IOException {
+      compute();
+      resource.document(operation);
+    }
+
+    void complete(Operation operation) {
+      recorder.written(writeStart);
+      recorder.complete(IdentifierRegistry.resolve(request, identifier()), DocsConfiguration.global().getListeners());
+    }
+
+    private void compute() {
+      if (resource != null) {
+        return;
+      }
+
+      var engine = JsonParser.engine(request, jsonEngine);
+      var prettyPrintLimit = DocsConfiguration.global().getPrettyPrintLimit();
+      var requestBody = new PrettyBody(prettyPrintLimit, exampleLimits);
+      var responseBody = new PrettyBody(prettyPrintLimit, exampleLimits);
+
+      var requestFields = DocsGenerateUtil.requestFields(request, customRequestFields, engine, requestBody, recorder);
+      var responseFields = DocsGenerateUtil.responseFields(response, customResponseFields, engine, responseBody, recorder);
+      recorder.descriptors(requestFields.size() + responseFields.size());
+
+      if (DocsConfiguration.global().isAccumulateSchemas()) {
+        SchemaAccumulator.observe(request, response, requestFields, responseFields);
+      }
+
+      var parameters = ResourceSnippetParameters.builder()
+        .tag(tag)
+        .summary(summary)
+        .description(description)
+        .requestFields(requestFields)
+        .responseFields(responseFields)
+        .queryParameters(DocsGenerateUtil.queryParameters(request, customRequestParameters))
+        .pathParameters(DocsGenerateUtil.pathVariables(request, customPathVariables))
+        .build();
+
+      prettyPrinter = new JsonPrettyPrinter(engine, requestBody, responseBody);
+      resource = DocsConfiguration.global().isSnippetStore() ? SnippetStore.capturing(parameters) : resource(parameters);
+    }
+  }
+
   public static class Builder {
     private String identifier;
     private ApiTag apiTag;
@@ -96,6 +274,8 @@ public class Document {
     private List<ParameterDescriptorWithType> pathVariables;
     private List<FieldDescriptor> requestFields;
     private List<FieldDescriptor> responseFields;
+    private JsonEngine jsonEngine;
+    private ExampleLimits exampleLimits;
 
     private Builder() {
     }
@@ -155,6 +335,22 @@ public class Document {
       return this;
     }
 
+    /**
+     * Overrides the engine of {@link DocsConfiguration} for this document.
+     */
+    public Builder jsonEngine(JsonEngine jsonEngine) {
+      this.jsonEngine = jsonEngine;
+      return this;
+    }
+
+    /**
+     * Overrides the example limits of {@link DocsConfiguration} for this document.
+     */
+    public Builder exampleLimits(ExampleLimits exampleLimits) {
+      this.exampleLimits = exampleLimits;
+      return this;
+    }
+
     public Document build() {
       if (result == null) {
         requireNonNull(request, "Request cannot be null");
@@ -170,7 +366,9 @@ public class Document {
           requestFields,
           responseFields,
           requestParameters,
-          pathVariables
+          pathVariables,
+          jsonEngine,
+          exampleLimits
         );
       }
 
@@ -186,7 +384,9 @@ public class Document {
         requestFields,
         responseFields,
         requestParameters,
-        pathVariables
+        pathVariables,
+        jsonEngine,
+        exampleLimits
       );
     }
 
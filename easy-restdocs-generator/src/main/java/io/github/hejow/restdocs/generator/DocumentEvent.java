@@ -0,0 +1,43 @@
+package io.github.hejow.restdocs.generator;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of one documented call, so a documentation run can be profiled with {@code -XX:StartFlightRecording}
+ * and no other agent. The event spans the whole call, its fields split it like {@link DocumentMetrics}.
+ */
+@Name("io.github.hejow.restdocs.Document")
+@Label("Documented Call")
+@Category("easy-restdocs")
+@Description("Descriptors and snippets generated for one MockMvc call")
+@StackTrace(false)
+final class DocumentEvent extends Event {
+  @Label("Identifier")
+  String identifier;
+
+  @Label("Parse Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long parseTime;
+
+  @Label("Extraction Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long extractionTime;
+
+  @Label("Write Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long writeTime;
+
+  @Label("Body Size")
+  @DataAmount
+  long bodyBytes;
+
+  @Label("Descriptors")
+  int descriptorCount;
+}
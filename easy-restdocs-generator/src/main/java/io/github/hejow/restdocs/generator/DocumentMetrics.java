@@ -0,0 +1,70 @@
+package io.github.hejow.restdocs.generator;
+
+import java.time.Duration;
+
+/**
+ * Cost of documenting one call, reported to every {@link DocsListener}. <br>
+ * Bodies are streamed into descriptors in a single pass whenever possible, that pass counts as extraction.
+ * Parse time covers the passes that only read a body: its shape fingerprint and, when one is required, its tree.
+ * Write time covers rendering and writing the snippets of the call.
+ */
+public final class DocumentMetrics {
+  private final String identifier;
+  private final Duration parseTime;
+  private final Duration extractionTime;
+  private final Duration writeTime;
+  private final long bodyBytes;
+  private final int descriptorCount;
+
+  DocumentMetrics(String identifier, long parseNanos, long extractionNanos, long writeNanos, long bodyBytes, int descriptorCount) {
+    this.identifier = identifier;
+    this.parseTime = Duration.ofNanos(parseNanos);
+    this.extractionTime = Duration.ofNanos(extractionNanos);
+    this.writeTime = Duration.ofNanos(writeNanos);
+    this.bodyBytes = bodyBytes;
+    this.descriptorCount = descriptorCount;
+  }
+
+  /**
+   * @return the identifier with the placeholders of the test resolved, e.g. {@code {method_name}}
+   */
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  public Duration getParseTime() {
+    return parseTime;
+  }
+
+  public Duration getExtractionTime() {
+    return extractionTime;
+  }
+
+  public Duration getWriteTime() {
+    return writeTime;
+  }
+
+  public Duration getTotalTime() {
+    return parseTime.plus(extractionTime).plus(writeTime);
+  }
+
+  /**
+   * @return size of the request and response bodies
+   */
+  public long getBodyBytes() {
+    return bodyBytes;
+  }
+
+  /**
+   * @return request and response fields, custom ones included
+   */
+  public int getDescriptorCount() {
+    return descriptorCount;
+  }
+
+  @Override
+  public String toString() {
+    return "DocumentMetrics{identifier='%s', parseTime=%s, extractionTime=%s, writeTime=%s, bodyBytes=%d, descriptorCount=%d}"
+      .formatted(identifier, parseTime, extractionTime, writeTime, bodyBytes, descriptorCount);
+  }
+}
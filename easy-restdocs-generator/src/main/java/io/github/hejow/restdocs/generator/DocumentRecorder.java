@@ -0,0 +1,59 @@
+package io.github.hejow.restdocs.generator;
+
+import java.util.List;
+
+/**
+ * Collects the {@link DocumentMetrics} of one documented call on the test thread, then hands them to the listeners,
+ * the {@link DocsReport} and JFR. Each step is timed with two {@link System#nanoTime()} calls.
+ */
+final class DocumentRecorder {
+  private final DocumentEvent event = new DocumentEvent();
+  private long parseNanos;
+  private long extractionNanos;
+  private long writeNanos;
+  private long bodyBytes;
+  private int descriptorCount;
+
+  DocumentRecorder() {
+    event.begin();
+  }
+
+  void parsed(long start) {
+    parseNanos += System.nanoTime() - start;
+  }
+
+  void extracted(long start) {
+    extractionNanos += System.nanoTime() - start;
+  }
+
+  void written(long start) {
+    writeNanos += System.nanoTime() - start;
+  }
+
+  void body(int bytes) {
+    bodyBytes += bytes;
+  }
+
+  void descriptors(int count) {
+    descriptorCount += count;
+  }
+
+  void complete(String identifier, List<DocsListener> listeners) {
+    var metrics = new DocumentMetrics(identifier, parseNanos, extractionNanos, writeNanos, bodyBytes, descriptorCount);
+
+    for (var listener : listeners) {
+      listener.documented(metrics);
+    }
+    DocsReport.record(metrics);
+
+    if (event.shouldCommit()) {
+      event.identifier = identifier;
+      event.parseTime = parseNanos;
+      event.extractionTime = extractionNanos;
+      event.writeTime = writeNanos;
+      event.bodyBytes = bodyBytes;
+      event.descriptorCount = descriptorCount;
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,205 @@
+package io.github.hejow.restdocs.generator;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.restdocs.ManualRestDocumentation;
+import org.springframework.restdocs.RestDocumentationContext;
+import org.springframework.restdocs.RestDocumentationContextProvider;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcConfigurer;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.filter.CharacterEncodingFilter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.documentationConfiguration;
+
+/**
+ * Backs {@link EasyRestDocsTest}. Builds one documenting {@link MockMvc} per Spring application context, shared by every test class
+ * running on that context, instead of one per test. <br>
+ * The {@code MockMvc} is bound to a single {@link RestDocumentationContextProvider} that hands each documented call
+ * to the test running it, so snippets still land in the directory of their own test, also under JUnit parallel execution.
+ *
+ * <br>
+ *
+ * The {@code MockMvc} only adds a UTF-8 {@link CharacterEncodingFilter} and applies the {@link MockMvcConfigurer} beans of the context,
+ * e.g. one calling {@code alwaysDo(print())}. Unlike {@code @AutoConfigureMockMvc}, the {@code Filter} beans of the context,
+ * e.g. Spring Security, are not applied, register them through a {@code MockMvcConfigurer} or build a {@code MockMvc} of your own
+ * from the injected provider when the documented calls need them.
+ *
+ * <br>
+ *
+ * Calls made from threads a test starts itself, e.g. an executor, belong to the only test running.
+ * With several tests running at once such calls fail, build a {@code MockMvc} from the injected provider per thread instead.
+ *
+ * <br>
+ *
+ * Once all tests of a class ran, snippets still queued by {@link AsyncSnippetWriter} are written
+ * and the class fails if any of its own snippets could not be.
+ */
+public final class EasyRestDocsExtension implements BeforeEachCallback, AfterEachCallback, AfterAllCallback, ParameterResolver {
+  private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(EasyRestDocsExtension.class);
+  private static final RunningTests RUNNING_TESTS = new RunningTests();
+
+  @Override
+  public void beforeEach(ExtensionContext context) {
+    var documentation = new ManualRestDocumentation();
+    documentation.beforeTest(context.getRequiredTestClass(), context.getRequiredTestMethod().getName());
+
+    context.getStore(NAMESPACE).put(ManualRestDocumentation.class, documentation);
+    RUNNING_TESTS.start(documentation);
+  }
+
+  @Override
+  public void afterEach(ExtensionContext context) {
+    var documentation = context.getStore(NAMESPACE).remove(ManualRestDocumentation.class, ManualRestDocumentation.class);
+    if (documentation != null) {
+      RUNNING_TESTS.finish(documentation);
+      documentation.afterTest();
+    }
+  }
+
+  @Override
+  public void afterAll(ExtensionContext context) {
+    AsyncSnippetWriter.flush(context.getRequiredTestClass());
+  }
+
+  @Override
+  public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+    var type = parameterContext.getParameter().getType();
+
+    return type == MockMvc.class || type == Document.Builder.class || type == RestDocumentationContextProvider.class;
+  }
+
+  @Override
+  public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+    var type = parameterContext.getParameter().getType();
+
+    if (type == MockMvc.class) {
+      return mockMvc(extensionContext);
+    }
+
+    if (type == RestDocumentationContextProvider.class) {
+      return RUNNING_TESTS;
+    }
+
+    var builder = Document.builder();
+    var tag = tag(extensionContext.getRequiredTestClass());
+    return tag == null ? builder : builder.tag(tag);
+  }
+
+  /**
+   * Kept in the root store, so classes sharing a cached Spring context share the {@code MockMvc} as well.
+   */
+  private static MockMvc mockMvc(ExtensionContext extensionContext) {
+    if (!(SpringExtension.getApplicationContext(extensionContext) instanceof WebApplicationContext applicationContext)) {
+      throw new ParameterResolutionException(
+        "@EasyRestDocsTest needs a web application context, such as the one of @SpringBootTest or @WebMvcTest"
+      );
+    }
+
+    return extensionContext.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(
+      applicationContext,
+      context -> {
+        var builder = MockMvcBuilders.webAppContextSetup(context)
+          .apply(documentationConfiguration(RUNNING_TESTS))
+          .addFilter(new CharacterEncodingFilter(UTF_8.name(), true));
+
+        context.getBeanProvider(MockMvcConfigurer.class).orderedStream().forEach(builder::apply);
+        return builder.build();
+      },
+      MockMvc.class
+    );
+  }
+
+  /**
+   * @return the tag of the closest {@link EasyRestDocsTest} of {@code testClass} or its enclosing classes, {@code null} when it has none
+   */
+  private static ApiTag tag(Class<?> testClass) {
+    for (var type = testClass; type != null; type = type.getEnclosingClass()) {
+      var annotation = AnnotationSupport.findAnnotation(type, EasyRestDocsTest.class);
+
+      if (annotation.isPresent()) {
+        return tag(annotation.get().tag(), annotation.get().constant());
+      }
+    }
+
+    return null;
+  }
+
+  private static ApiTag tag(Class<? extends ApiTag> type, String constant) {
+    if (type == ApiTag.class) {
+      return null;
+    }
+
+    if (type.isEnum()) {
+      var constants = type.getEnumConstants();
+
+      if (constant.isEmpty()) {
+        if (constants.length != 1) {
+          throw new IllegalArgumentException("%s has %d constants, pick one with constant".formatted(type.getName(), constants.length));
+        }
+
+        return constants[0];
+      }
+
+      return Arrays.stream(constants)
+        .filter(it -> ((Enum<?>) it).name().equals(constant))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("%s has no constant %s".formatted(type.getName(), constant)));
+    }
+
+    try {
+      return type.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException exception) {
+      throw new IllegalArgumentException("Tag %s needs a no-arg constructor".formatted(type.getName()), exception);
+    }
+  }
+
+  /**
+   * Hands each documented call to the test of the calling thread, or to the only test running.
+   */
+  private static final class RunningTests implements RestDocumentationContextProvider {
+    private final ThreadLocal<ManualRestDocumentation> current = new ThreadLocal<>();
+    private final Set<ManualRestDocumentation> running = ConcurrentHashMap.newKeySet();
+
+    void start(ManualRestDocumentation documentation) {
+      running.add(documentation);
+      current.set(documentation);
+    }
+
+    void finish(ManualRestDocumentation documentation) {
+      running.remove(documentation);
+      current.remove();
+    }
+
+    @Override
+    public RestDocumentationContext beforeOperation() {
+      var documentation = current.get();
+      if (documentation != null) {
+        return documentation.beforeOperation();
+      }
+
+      var tests = List.copyOf(running);
+      if (tests.size() != 1) {
+        throw new IllegalStateException(
+          "Documented call made outside of a test thread while %d tests are running".formatted(tests.size())
+        );
+      }
+
+      return tests.get(0).beforeOperation();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package io.github.hejow.restdocs.generator;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.restdocs.RestDocumentationContextProvider;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Documents the tests of a Spring web test class without any {@code MockMvc} setup. <br>
+ * Test and lifecycle methods declare what they need as parameters: a documenting {@link MockMvc}, a {@link Document.Builder}
+ * starting with the {@link #tag()} of the class, or the {@link RestDocumentationContextProvider} to build a {@code MockMvc} of their own.
+ *
+ * <br>
+ *
+ * <pre>
+ * {@literal @}SpringBootTest
+ * {@literal @}EasyRestDocsTest(tag = MyTag.class, constant = "USER")
+ * class UserControllerTest {
+ *   {@literal @}Test
+ *   void save(MockMvc mockMvc, Document.Builder document) throws Exception {
+ *     var result = mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(body));
+ *
+ *     result.andDo(document.summary("save user").result(result).buildAndGenerate());
+ *   }
+ * }
+ * </pre>
+ *
+ * Replaces {@code @ExtendWith(RestDocumentationExtension.class)}, see {@link EasyRestDocsExtension}.
+ */
+@Target({ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@ExtendWith(EasyRestDocsExtension.class)
+public @interface EasyRestDocsTest {
+  /**
+   * Tag the injected {@link Document.Builder} starts with, none by default.
+   * Enums pick their {@link #constant()}, other tags are created through their no-arg constructor.
+   */
+  Class<? extends ApiTag> tag() default ApiTag.class;
+
+  /**
+   * Name of the enum constant of {@link #tag()}, can be left out when the enum has a single one.
+   */
+  String constant() default "";
+}
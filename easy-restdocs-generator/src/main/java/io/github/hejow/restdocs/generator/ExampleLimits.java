@@ -0,0 +1,140 @@
+package io.github.hejow.restdocs.generator;
+
+/**
+ * Bounds the JSON examples written to snippets, such as {@code http-response.adoc} and {@code resource.json}. <br>
+ * Examples are trimmed structurally, so they stay valid JSON: arrays keep their first elements and long strings are cut.
+ * Descriptors are still generated from the whole body.
+ *
+ * <br>
+ *
+ * <pre>
+ * ExampleLimits.builder()
+ *   .maxArrayElements(3)
+ *   .maxStringLength(200)
+ *   .maxBytes(16 * 1024)
+ *   .build();
+ * </pre>
+ *
+ * When an example is still larger than {@code maxBytes}, arrays and strings are halved until it fits
+ * or both reach their minimum. Object fields are never dropped.
+ *
+ * @see DocsConfiguration.Builder#exampleLimits(ExampleLimits)
+ * @see Document.Builder#exampleLimits(ExampleLimits)
+ */
+public final class ExampleLimits {
+  static final String TRUNCATED = "...";
+
+  private static final int UNBOUNDED = Integer.MAX_VALUE;
+  private static final int MIN_STRING_LENGTH = 16;
+  private static final ExampleLimits NONE = new ExampleLimits(UNBOUNDED, UNBOUNDED, UNBOUNDED);
+
+  private final int maxArrayElements;
+  private final int maxStringLength;
+  private final int maxBytes;
+
+  private ExampleLimits(int maxArrayElements, int maxStringLength, int maxBytes) {
+    this.maxArrayElements = maxArrayElements;
+    this.maxStringLength = maxStringLength;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Examples are written as they are (default).
+   */
+  public static ExampleLimits none() {
+    return NONE;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int getMaxArrayElements() {
+    return maxArrayElements;
+  }
+
+  public int getMaxStringLength() {
+    return maxStringLength;
+  }
+
+  public int getMaxBytes() {
+    return maxBytes;
+  }
+
+  boolean isBounded() {
+    return trimsTokens() || maxBytes != UNBOUNDED;
+  }
+
+  boolean trimsTokens() {
+    return maxArrayElements != UNBOUNDED || maxStringLength != UNBOUNDED;
+  }
+
+  boolean fits(byte[] example) {
+    return example.length <= maxBytes;
+  }
+
+  /**
+   * Halves arrays and strings, starting from the longest ones of the example.
+   *
+   * @return tighter limits, or {@code null} when they can't shrink anymore
+   */
+  ExampleLimits shrink(int longestArray, int longestString) {
+    var arrays = Math.max(1, Math.min(maxArrayElements, longestArray) / 2);
+    var strings = Math.max(MIN_STRING_LENGTH, Math.min(maxStringLength, longestString) / 2);
+
+    if (arrays >= Math.min(maxArrayElements, longestArray) && strings >= Math.min(maxStringLength, longestString)) {
+      return null;
+    }
+
+    return new ExampleLimits(arrays, strings, maxBytes);
+  }
+
+  public static class Builder {
+    private int maxArrayElements = UNBOUNDED;
+    private int maxStringLength = UNBOUNDED;
+    private int maxBytes = UNBOUNDED;
+
+    private Builder() {
+    }
+
+    /**
+     * Elements kept per array, the rest are left out of the example.
+     */
+    public Builder maxArrayElements(int maxArrayElements) {
+      if (maxArrayElements < 1) {
+        throw new IllegalArgumentException("Max array elements must be positive");
+      }
+
+      this.maxArrayElements = maxArrayElements;
+      return this;
+    }
+
+    /**
+     * Longer strings are cut and end with {@code ...}.
+     */
+    public Builder maxStringLength(int maxStringLength) {
+      if (maxStringLength < 1) {
+        throw new IllegalArgumentException("Max string length must be positive");
+      }
+
+      this.maxStringLength = maxStringLength;
+      return this;
+    }
+
+    /**
+     * Size of a pretty printed example that arrays and strings are shrunk to.
+     */
+    public Builder maxBytes(int maxBytes) {
+      if (maxBytes < 1) {
+        throw new IllegalArgumentException("Max bytes must be positive");
+      }
+
+      this.maxBytes = maxBytes;
+      return this;
+    }
+
+    public ExampleLimits build() {
+      return new ExampleLimits(maxArrayElements, maxStringLength, maxBytes);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package io.github.hejow.restdocs.generator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned trie of field paths. Every path points at its parent and shares its prefix,
+ * so walking into a field costs a map lookup instead of formatting a new dotted string. <br>
+ * The dotted form is only built, once, when a descriptor is created.
+ *
+ * <br>
+ *
+ * Children are canonical, so paths of one trie can be compared by identity.
+ * Sibling subtrees may be walked in parallel, so children can be added concurrently.
+ */
+final class FieldPath {
+  private static final String ARRAY = "[]";
+  private static final char SEPARATOR = '.';
+
+  private final FieldPath parent;
+  private final String name;
+  private final boolean array;
+  private final int depth;
+  private volatile Map<String, FieldPath> children;
+  private volatile FieldPath element;
+  private String value;
+
+  private FieldPath(FieldPath parent, String name, boolean array) {
+    this.parent = parent;
+    this.name = name;
+    this.array = array;
+    this.depth = parent == null ? 0 : parent.depth + 1;
+  }
+
+  static FieldPath root() {
+    return new FieldPath(null, null, false);
+  }
+
+  boolean isRoot() {
+    return parent == null;
+  }
+
+  /**
+   * {@code this.key}
+   */
+  FieldPath child(String key) {
+    var children = this.children;
+    if (children == null) {
+      synchronized (this) {
+        if (this.children == null) {
+          this.children = new ConcurrentHashMap<>();
+        }
+        children = this.children;
+      }
+    }
+
+    var child = children.get(key);
+    return child != null ? child : children.computeIfAbsent(key, it -> new FieldPath(this, it, false));
+  }
+
+  /**
+   * {@code this[]}
+   */
+  FieldPath element() {
+    var element = this.element;
+    if (element == null) {
+      synchronized (this) {
+        if (this.element == null) {
+          this.element = new FieldPath(this, ARRAY, true);
+        }
+        element = this.element;
+      }
+    }
+
+    return element;
+  }
+
+  @Override
+  public String toString() {
+    var value = this.value;
+    if (value == null) {
+      value = materialize();
+      this.value = value;
+    }
+
+    return value;
+  }
+
+  private String materialize() {
+    if (isRoot()) {
+      return "";
+    }
+
+    var segments = new FieldPath[depth];
+    var length = 0;
+
+    for (var path = this; !path.isRoot(); path = path.parent) {
+      segments[path.depth - 1] = path;
+      length += path.name.length() + 1;
+    }
+
+    var builder = new StringBuilder(length);
+    for (var segment : segments) {
+      if (!segment.array && !builder.isEmpty()) {
+        builder.append(SEPARATOR);
+      }
+      builder.append(segment.name);
+    }
+
+    return builder.toString();
+  }
+}
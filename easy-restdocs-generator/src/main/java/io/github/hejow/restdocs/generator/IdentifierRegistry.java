@@ -0,0 +1,71 @@
+package io.github.hejow.restdocs.generator;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.restdocs.RestDocumentationContext;
+import org.springframework.restdocs.snippet.RestDocumentationContextPlaceholderResolverFactory;
+import org.springframework.util.PropertyPlaceholderHelper;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which test documented each snippet directory, so two tests resolving to the same identifier fail
+ * instead of silently overwriting each other, e.g. {@code {method_name}} in two classes. <br>
+ * Safe under JUnit parallel execution, a test may document its own identifier any number of times.
+ */
+final class IdentifierRegistry {
+  private static final String CONFIGURATION_ATTRIBUTE = "org.springframework.restdocs.configuration";
+  private static final PropertyPlaceholderHelper PLACEHOLDER_HELPER = new PropertyPlaceholderHelper("{", "}");
+  private static final RestDocumentationContextPlaceholderResolverFactory RESOLVER_FACTORY = new RestDocumentationContextPlaceholderResolverFactory();
+
+  private static final Map<String, String> owners = new ConcurrentHashMap<>();
+
+  private IdentifierRegistry() {
+    throw new AssertionError("Can't be initialize!");
+  }
+
+  /**
+   * @return {@code identifier} with the placeholders of the current test replaced, or as it is outside a REST Docs test
+   */
+  static String resolve(MockHttpServletRequest request, String identifier) {
+    var context = context(request);
+
+    return context == null || context.getTestClass() == null
+      ? identifier
+      : PLACEHOLDER_HELPER.replacePlaceholders(identifier, RESOLVER_FACTORY.create(context));
+  }
+
+  /**
+   * @throws IllegalStateException if another test already documented {@code identifier} into the same directory
+   */
+  static void register(MockHttpServletRequest request, String identifier) {
+    var context = context(request);
+    if (context == null || context.getTestClass() == null) {
+      return;
+    }
+
+    var resolved = PLACEHOLDER_HELPER.replacePlaceholders(identifier, RESOLVER_FACTORY.create(context));
+    var directory = new File(context.getOutputDirectory(), resolved).getPath();
+    var owner = "%s#%s".formatted(context.getTestClass().getName(), context.getTestMethodName());
+
+    var previous = owners.putIfAbsent(directory, owner);
+    if (previous != null && !previous.equals(owner)) {
+      throw new IllegalStateException(
+        "Identifier '%s' of %s is already documented by %s, snippets would overwrite each other".formatted(resolved, owner, previous)
+      );
+    }
+  }
+
+  /**
+   * @return the REST Docs context of the test performing {@code request}, or {@code null} outside a REST Docs test
+   */
+  @SuppressWarnings("unchecked")
+  static RestDocumentationContext context(MockHttpServletRequest request) {
+    var configuration = (Map<String, Object>) request.getAttribute(CONFIGURATION_ATTRIBUTE);
+
+    return configuration != null && configuration.get(RestDocumentationContext.class.getName()) instanceof RestDocumentationContext context
+      ? context
+      : null;
+  }
+}
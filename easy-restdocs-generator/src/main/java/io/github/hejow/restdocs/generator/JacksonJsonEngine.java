@@ -0,0 +1,48 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link JsonEngine} over an {@code ObjectMapper}. Readers and writers are immutable and thread safe, so they are built once.
+ */
+final class JacksonJsonEngine implements JsonEngine {
+  static final JsonEngine DEFAULT = new JacksonJsonEngine(new ObjectMapper());
+
+  private final JsonFactory factory;
+  private final ObjectReader reader;
+  private final ObjectWriter prettyWriter;
+
+  JacksonJsonEngine(ObjectMapper mapper) {
+    this.factory = mapper.getFactory();
+    this.reader = mapper.reader();
+    this.prettyWriter = mapper.writerWithDefaultPrettyPrinter();
+  }
+
+  @Override
+  public com.fasterxml.jackson.core.JsonParser createParser(byte[] content) throws IOException {
+    return factory.createParser(content);
+  }
+
+  @Override
+  public JsonNode readTree(byte[] content) throws IOException {
+    return reader.readTree(content);
+  }
+
+  @Override
+  public JsonNode readTree(String content) throws IOException {
+    return reader.readTree(content);
+  }
+
+  @Override
+  public JsonGenerator createPrettyGenerator(OutputStream output) throws IOException {
+    return prettyWriter.createGenerator(output);
+  }
+}
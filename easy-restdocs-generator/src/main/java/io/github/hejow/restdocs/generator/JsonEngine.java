@@ -0,0 +1,73 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * JSON engine used to extract descriptors and pretty print documented bodies. <br>
+ * Implementations are shared between tests, so they must be thread safe.
+ * When none is configured, the {@code ObjectMapper} of the Spring context under test is used if it has exactly one,
+ * otherwise a plain {@code ObjectMapper}.
+ *
+ * <br>
+ *
+ * <pre>
+ * DocsConfiguration.setGlobal(
+ *   DocsConfiguration.builder()
+ *     .jsonEngine(JsonEngine.jackson(applicationObjectMapper))
+ *     .build()
+ * );
+ * </pre>
+ *
+ * @see DocsConfiguration.Builder#jsonEngine(JsonEngine)
+ * @see Document.Builder#jsonEngine(JsonEngine)
+ */
+public interface JsonEngine {
+  com.fasterxml.jackson.core.JsonParser createParser(byte[] content) throws IOException;
+
+  JsonNode readTree(byte[] content) throws IOException;
+
+  JsonNode readTree(String content) throws IOException;
+
+  /**
+   * Generator writing indented JSON to {@code output}.
+   */
+  JsonGenerator createPrettyGenerator(OutputStream output) throws IOException;
+
+  /**
+   * Copies tokens straight into a pretty printing generator, no tree is built.
+   *
+   * @return {@code content} re-written with indentation, {@code content} itself is never modified
+   */
+  default byte[] prettyPrint(byte[] content) throws IOException {
+    var output = new ByteArrayOutputStream(content.length * 2);
+
+    try (var parser = createParser(content); var generator = createPrettyGenerator(output)) {
+      if (parser.nextToken() == null) {
+        return content;
+      }
+
+      generator.copyCurrentStructure(parser);
+    }
+
+    return output.toByteArray();
+  }
+
+  /**
+   * Engine backed by {@code mapper}, its reader, factory and pretty printing writer are created once and reused.
+   */
+  static JsonEngine jackson(ObjectMapper mapper) {
+    return new JacksonJsonEngine(requireNonNull(mapper, "ObjectMapper cannot be null"));
+  }
+
+  static JsonEngine defaults() {
+    return JacksonJsonEngine.DEFAULT;
+  }
+}
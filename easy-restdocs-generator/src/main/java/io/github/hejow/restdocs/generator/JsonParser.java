@@ -1,25 +1,58 @@
 package io.github.hejow.restdocs.generator;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.support.WebApplicationContextUtils;
 
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 class JsonParser {
-  private static final ObjectMapper mapper = new ObjectMapper();
+  private static final Map<ServletContext, JsonEngine> detectedEngines = Collections.synchronizedMap(new WeakHashMap<>());
 
   private JsonParser() {
     throw new AssertionError("can't be initialize!");
   }
 
-  public static JsonNode readTree(ContentSupplier contentSupplier) {
+  public static JsonNode readTree(ContentSupplier contentSupplier, JsonEngine engine) {
     try {
       var content = contentSupplier.get();
-      
-      return content != null ? mapper.readTree(content) : null;
-    } catch (UnsupportedEncodingException | JsonProcessingException exception) {
+
+      return content != null ? engine.readTree(content) : null;
+    } catch (IOException exception) {
       throw new IllegalArgumentException("Read JsonNode Tree Failed", exception);
     }
   }
+
+  /**
+   * @return {@code preferred}, or the engine over the single {@code ObjectMapper} bean of the Spring context serving {@code request},
+   * or {@link JsonEngine#defaults()}. Detected engines are kept per context.
+   */
+  public static JsonEngine engine(MockHttpServletRequest request, JsonEngine preferred) {
+    if (preferred != null) {
+      return preferred;
+    }
+
+    var servletContext = request.getServletContext();
+    if (servletContext == null) {
+      return JsonEngine.defaults();
+    }
+
+    return detectedEngines.computeIfAbsent(servletContext, JsonParser::detect);
+  }
+
+  private static JsonEngine detect(ServletContext servletContext) {
+    try {
+      var context = WebApplicationContextUtils.getWebApplicationContext(servletContext);
+      var mapper = context != null ? context.getBeanProvider(ObjectMapper.class).getIfUnique() : null;
+
+      return mapper != null ? JsonEngine.jackson(mapper) : JsonEngine.defaults();
+    } catch (RuntimeException exception) {
+      return JsonEngine.defaults();
+    }
+  }
 }
@@ -0,0 +1,44 @@
+package io.github.hejow.restdocs.generator;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.restdocs.operation.OperationRequest;
+import org.springframework.restdocs.operation.OperationResponse;
+import org.springframework.restdocs.operation.preprocess.ContentModifyingOperationPreprocessor;
+import org.springframework.restdocs.operation.preprocess.OperationPreprocessor;
+
+import static org.springframework.restdocs.operation.preprocess.Preprocessors.prettyPrint;
+
+/**
+ * Pretty prints JSON bodies with a {@link JsonEngine}, other bodies are left to REST Docs' {@code prettyPrint()}. <br>
+ * Bodies already printed while their descriptors were extracted are reused as they are.
+ */
+final class JsonPrettyPrinter implements OperationPreprocessor {
+  private static final String JSON_SUFFIX = "json";
+
+  private final OperationPreprocessor request;
+  private final OperationPreprocessor response;
+  private final OperationPreprocessor fallback = prettyPrint();
+
+  JsonPrettyPrinter(JsonEngine engine, PrettyBody requestBody, PrettyBody responseBody) {
+    this.request = new ContentModifyingOperationPreprocessor((content, contentType) -> requestBody.modify(content, engine));
+    this.response = new ContentModifyingOperationPreprocessor((content, contentType) -> responseBody.modify(content, engine));
+  }
+
+  @Override
+  public OperationRequest preprocess(OperationRequest operationRequest) {
+    return isJson(operationRequest.getHeaders()) ? request.preprocess(operationRequest) : fallback.preprocess(operationRequest);
+  }
+
+  @Override
+  public OperationResponse preprocess(OperationResponse operationResponse) {
+    return isJson(operationResponse.getHeaders()) ? response.preprocess(operationResponse) : fallback.preprocess(operationResponse);
+  }
+
+  private static boolean isJson(HttpHeaders headers) {
+    var contentType = headers.getContentType();
+
+    return contentType != null
+      && (contentType.isCompatibleWith(MediaType.APPLICATION_JSON) || JSON_SUFFIX.equals(contentType.getSubtypeSuffix()));
+  }
+}
@@ -0,0 +1,282 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Pretty printed form of one body of a {@link Document}. <br>
+ * It is written as a side effect of the first pass over the tokens of the body, so extracting descriptors
+ * and pretty printing the snippet share a single parse. Bodies above the limit are documented as they are,
+ * unless {@link ExampleLimits} bound the example.
+ */
+final class PrettyBody {
+  private final int limit;
+  private final ExampleLimits exampleLimits;
+  private byte[] content;
+  private byte[] printed;
+
+  PrettyBody(int limit, ExampleLimits exampleLimits) {
+    this.limit = limit;
+    this.exampleLimits = exampleLimits;
+  }
+
+  /**
+   * @return a copy writing {@code content} pretty printed, or {@link TokenCopy#NONE} when it is not needed
+   */
+  TokenCopy copy(byte[] content, JsonEngine engine) throws IOException {
+    if (printed != null || !isPrinted(content)) {
+      return TokenCopy.NONE;
+    }
+
+    var output = new ByteArrayOutputStream(initialSize(content));
+    return new TokenCopy(
+      engine.createPrettyGenerator(output),
+      exampleLimits,
+      copy -> complete(content, bounded(content, output.toByteArray(), copy, engine))
+    );
+  }
+
+  /**
+   * Serializes an already parsed body.
+   */
+  void print(byte[] content, JsonNode tree, JsonEngine engine) throws IOException {
+    var copy = copy(content, engine);
+    if (copy == TokenCopy.NONE) {
+      return;
+    }
+
+    try (var parser = tree.traverse()) {
+      parser.nextToken();
+      copy.skip(parser);
+    }
+
+    copy.complete();
+  }
+
+  /**
+   * @return the pretty printed body when {@code content} is the body that was copied, otherwise it is printed now
+   */
+  byte[] modify(byte[] content, JsonEngine engine) {
+    if (printed != null && Arrays.equals(this.content, content)) {
+      return printed;
+    }
+
+    if (content.length == 0 || !isPrinted(content)) {
+      return content;
+    }
+
+    try {
+      if (!exampleLimits.isBounded()) {
+        return engine.prettyPrint(content);
+      }
+
+      var copy = new TokenCopy(null, exampleLimits, null);
+      return bounded(content, print(content, engine, exampleLimits, copy), copy, engine);
+    } catch (Exception exception) {
+      return content;
+    }
+  }
+
+  /**
+   * Bounded examples stay small however large the body is, so they are always printed.
+   */
+  private boolean isPrinted(byte[] content) {
+    return content.length <= limit || exampleLimits.isBounded();
+  }
+
+  private int initialSize(byte[] content) {
+    return (int) Math.min(Math.min(content.length * 2L, exampleLimits.getMaxBytes()), limit);
+  }
+
+  /**
+   * Shrinks arrays and strings while the example is larger than {@link ExampleLimits#getMaxBytes()}.
+   */
+  private byte[] bounded(byte[] content, byte[] example, TokenCopy copy, JsonEngine engine) {
+    var limits = exampleLimits;
+
+    try {
+      while (!limits.fits(example)) {
+        limits = limits.shrink(copy.longestArray, copy.longestString);
+        if (limits == null) {
+          return example;
+        }
+
+        example = print(content, engine, limits, new TokenCopy(null, limits, null));
+      }
+    } catch (IOException exception) {
+      return example;
+    }
+
+    return example;
+  }
+
+  /**
+   * @param stats collects the longest array and string of {@code content}
+   */
+  private byte[] print(byte[] content, JsonEngine engine, ExampleLimits limits, TokenCopy stats) throws IOException {
+    var output = new ByteArrayOutputStream(initialSize(content));
+
+    try (var parser = engine.createParser(content); var generator = engine.createPrettyGenerator(output)) {
+      if (parser.nextToken() == null) {
+        return content;
+      }
+
+      var copy = new TokenCopy(generator, limits, null);
+      copy.skip(parser);
+      stats.longestArray = Math.max(stats.longestArray, copy.longestArray);
+      stats.longestString = Math.max(stats.longestString, copy.longestString);
+    }
+
+    return output.toByteArray();
+  }
+
+  private void complete(byte[] content, byte[] printed) {
+    this.content = content;
+    this.printed = printed;
+  }
+
+  /**
+   * Mirrors the tokens a walker reads into a pretty printing generator, trimmed to the {@link ExampleLimits}.
+   * {@link #NONE} only skips.
+   */
+  static final class TokenCopy {
+    static final TokenCopy NONE = new TokenCopy(null, ExampleLimits.none(), null);
+
+    private static final int NOT_ARRAY = -1;
+
+    private final JsonGenerator generator;
+    private final ExampleLimits limits;
+    private final Consumer<TokenCopy> onComplete;
+
+    /**
+     * Elements met so far by each open container, {@link #NOT_ARRAY} for objects.
+     */
+    private int[] elements = new int[16];
+    private int depth;
+    private int droppedDepth = NOT_ARRAY;
+    private int longestArray;
+    private int longestString;
+
+    private TokenCopy(JsonGenerator generator, ExampleLimits limits, Consumer<TokenCopy> onComplete) {
+      this.generator = generator;
+      this.limits = limits;
+      this.onComplete = onComplete;
+    }
+
+    /**
+     * Copies the current token.
+     */
+    void event(com.fasterxml.jackson.core.JsonParser parser) throws IOException {
+      if (generator == null) {
+        return;
+      }
+
+      if (!limits.isBounded()) {
+        generator.copyCurrentEvent(parser);
+        return;
+      }
+
+      var token = parser.currentToken();
+      var kept = droppedDepth == NOT_ARRAY && keep(token);
+
+      switch (token) {
+        case START_OBJECT, START_ARRAY -> open(token);
+        case END_OBJECT, END_ARRAY -> close();
+        default -> {
+        }
+      }
+
+      if (!kept) {
+        if (droppedDepth == NOT_ARRAY && token.isStructStart()) {
+          droppedDepth = depth;
+        } else if (droppedDepth == depth + 1 && token.isStructEnd()) {
+          droppedDepth = NOT_ARRAY;
+        }
+        return;
+      }
+
+      if (token == JsonToken.VALUE_STRING) {
+        writeString(parser.getText());
+      } else {
+        generator.copyCurrentEvent(parser);
+      }
+    }
+
+    /**
+     * Moves {@code parser} past the current value without inspecting it, copying it whole.
+     */
+    void skip(com.fasterxml.jackson.core.JsonParser parser) throws IOException {
+      if (generator == null) {
+        parser.skipChildren();
+        return;
+      }
+
+      if (!limits.isBounded()) {
+        generator.copyCurrentStructure(parser);
+        return;
+      }
+
+      var start = depth;
+      event(parser);
+      while (depth > start && parser.nextToken() != null) {
+        event(parser);
+      }
+    }
+
+    /**
+     * The whole body was copied.
+     */
+    void complete() throws IOException {
+      if (generator != null) {
+        generator.close();
+        onComplete.accept(this);
+      }
+    }
+
+    /**
+     * Counts the elements of the enclosing array, and drops the ones past the limit along with their children.
+     */
+    private boolean keep(JsonToken token) {
+      if (depth == 0 || elements[depth - 1] == NOT_ARRAY || token.isStructEnd() || token == JsonToken.FIELD_NAME) {
+        return true;
+      }
+
+      var index = elements[depth - 1]++;
+      return index < limits.getMaxArrayElements();
+    }
+
+    private void open(JsonToken token) {
+      if (depth == elements.length) {
+        elements = Arrays.copyOf(elements, depth * 2);
+      }
+
+      elements[depth++] = token == JsonToken.START_ARRAY ? 0 : NOT_ARRAY;
+    }
+
+    private void close() {
+      longestArray = Math.max(longestArray, elements[--depth]);
+    }
+
+    private void writeString(String text) throws IOException {
+      longestString = Math.max(longestString, text.length());
+
+      var length = limits.getMaxStringLength();
+      if (text.length() <= length) {
+        generator.writeString(text);
+        return;
+      }
+
+      if (Character.isHighSurrogate(text.charAt(length - 1))) {
+        length--;
+      }
+
+      generator.writeString(text.substring(0, length) + ExampleLimits.TRUNCATED);
+    }
+  }
+}
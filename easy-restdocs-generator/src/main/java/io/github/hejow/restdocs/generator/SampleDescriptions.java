@@ -0,0 +1,30 @@
+package io.github.hejow.restdocs.generator;
+
+import org.springframework.restdocs.payload.JsonFieldType;
+
+/**
+ * {@link DescriptionStrategy} writing the sample of a field, or its type when it has none.
+ */
+final class SampleDescriptions implements DescriptionStrategy {
+  static final DescriptionStrategy DEFAULT = new SampleDescriptions(DEFAULT_SAMPLE_LENGTH);
+
+  private final int sampleLength;
+
+  SampleDescriptions(int sampleLength) {
+    if (sampleLength < 0) {
+      throw new IllegalArgumentException("Sample length cannot be negative");
+    }
+
+    this.sampleLength = sampleLength;
+  }
+
+  @Override
+  public String describe(String path, JsonFieldType type, String sample) {
+    return sample != null ? sample : type.toString();
+  }
+
+  @Override
+  public int sampleLength() {
+    return sampleLength;
+  }
+}
@@ -0,0 +1,251 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.payload.FieldDescriptor;
+import org.springframework.restdocs.payload.JsonFieldType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Folds the descriptors of every call documenting the same endpoint, method and URL template, into one record per field,
+ * registered through {@code META-INF/services}. Enabled with {@link DocsConfiguration.Builder#accumulateSchemas(boolean)}.
+ *
+ * <br>
+ *
+ * Each record only holds how many bodies carried the field, the types it was seen with and whether it was {@code null},
+ * so memory grows with the fields of an endpoint, not with the calls documenting it. Bodies themselves are never kept.
+ * When the JUnit run finishes, every snippets directory gets an {@code easy-restdocs-schemas-<start millis>-<pid>.json}:
+ *
+ * <br>
+ *
+ * <pre>
+ * {"endpoints":[{"method":"GET","path":"/users/{id}","request":{...},"responses":{"200":{"observations":2,"fields":[
+ *   {"path":"data.name","seen":2,"types":["STRING"],"nullable":true,"optional":false,"description":"..."}
+ * ]}}}]}
+ * </pre>
+ *
+ * The Gradle plugin merges them, a field missing from some bodies or {@code null} in some of them is documented as optional.
+ * Responses are folded per status, so error bodies don't blend into successful ones.
+ */
+public final class SchemaAccumulator implements TestExecutionListener {
+  static final String FILE_PREFIX = "easy-restdocs-schemas-";
+  static final String FILE_SUFFIX = ".json";
+
+  private static final String URL_TEMPLATE_ATTRIBUTE = "org.springframework.restdocs.urlTemplate";
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static final Map<File, Map<String, Endpoint>> directories = new ConcurrentHashMap<>();
+
+  /**
+   * Folds the descriptors of one documented call, outside a REST Docs test there is no directory to write them to.
+   */
+  static void observe(
+    MockHttpServletRequest request,
+    MockHttpServletResponse response,
+    List<FieldDescriptor> requestFields,
+    List<FieldDescriptor> responseFields
+  ) {
+    var context = IdentifierRegistry.context(request);
+    if (context == null) {
+      return;
+    }
+
+    var method = request.getMethod();
+    var path = path(request);
+
+    directories.computeIfAbsent(context.getOutputDirectory().getAbsoluteFile(), directory -> new ConcurrentHashMap<>())
+      .computeIfAbsent(method + " " + path, key -> new Endpoint(method, path))
+      .observe(requestFields, response.getStatus(), responseFields);
+  }
+
+  @Override
+  public void testPlanExecutionFinished(TestPlan testPlan) {
+    directories.forEach((directory, endpoints) -> write(new File(directory, FILE_PREFIX + SnippetStore.RUN + FILE_SUFFIX), endpoints));
+    directories.clear();
+  }
+
+  /**
+   * The path restdocs-api-spec documents the call under, its URL template without the query string.
+   */
+  private static String path(MockHttpServletRequest request) {
+    var template = request.getAttribute(URL_TEMPLATE_ATTRIBUTE);
+    if (!(template instanceof String path) || path.isEmpty()) {
+      return request.getRequestURI();
+    }
+
+    var query = path.indexOf('?');
+    return query < 0 ? path : path.substring(0, query);
+  }
+
+  private static void write(File file, Map<String, Endpoint> endpoints) {
+    file.getParentFile().mkdirs();
+
+    try (var generator = JSON_FACTORY.createGenerator(file, JsonEncoding.UTF8)) {
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("endpoints");
+
+      for (var endpoint : new TreeMap<>(endpoints).values()) {
+        endpoint.write(generator);
+      }
+
+      generator.writeEndArray();
+      generator.writeEndObject();
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Failed to write accumulated schemas " + file, exception);
+    }
+  }
+
+  private static final class Endpoint {
+    private final String method;
+    private final String path;
+    private final Message request = new Message();
+    private final Map<Integer, Message> responses = new TreeMap<>();
+
+    private Endpoint(String method, String path) {
+      this.method = method;
+      this.path = path;
+    }
+
+    /**
+     * Calls without a body don't count, a {@code GET} documented alongside a {@code POST} never makes its fields optional.
+     */
+    synchronized void observe(List<FieldDescriptor> requestFields, int status, List<FieldDescriptor> responseFields) {
+      if (!requestFields.isEmpty()) {
+        request.observe(requestFields);
+      }
+
+      if (!responseFields.isEmpty()) {
+        responses.computeIfAbsent(status, it -> new Message()).observe(responseFields);
+      }
+    }
+
+    synchronized void write(JsonGenerator generator) throws IOException {
+      generator.writeStartObject();
+      generator.writeStringField("method", method);
+      generator.writeStringField("path", path);
+
+      if (request.observations > 0) {
+        generator.writeFieldName("request");
+        request.write(generator);
+      }
+
+      generator.writeObjectFieldStart("responses");
+      for (var response : responses.entrySet()) {
+        generator.writeFieldName(String.valueOf(response.getKey()));
+        response.getValue().write(generator);
+      }
+      generator.writeEndObject();
+
+      generator.writeEndObject();
+    }
+  }
+
+  /**
+   * The fields of every body of a request or a response, in the order they were first seen.
+   */
+  private static final class Message {
+    private final Map<String, FieldRecord> fields = new LinkedHashMap<>();
+    private int observations;
+
+    void observe(List<FieldDescriptor> descriptors) {
+      observations++;
+
+      for (var descriptor : descriptors) {
+        if (!descriptor.isIgnored()) {
+          fields.computeIfAbsent(descriptor.getPath(), it -> new FieldRecord()).observe(descriptor, observations);
+        }
+      }
+    }
+
+    void write(JsonGenerator generator) throws IOException {
+      generator.writeStartObject();
+      generator.writeNumberField("observations", observations);
+      generator.writeArrayFieldStart("fields");
+
+      for (var field : fields.entrySet()) {
+        field.getValue().write(generator, field.getKey());
+      }
+
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+  }
+
+  private static final class FieldRecord {
+    private final EnumSet<JsonFieldType> types = EnumSet.noneOf(JsonFieldType.class);
+    private int seen;
+    private int lastObservation;
+    private boolean nullable;
+    private boolean optional;
+    private String description;
+
+    /**
+     * A path listed twice in one body, e.g. a custom descriptor next to a generated one, is seen once.
+     */
+    void observe(FieldDescriptor descriptor, int observation) {
+      if (lastObservation != observation) {
+        lastObservation = observation;
+        seen++;
+      }
+
+      var type = type(descriptor.getType());
+      if (type == JsonFieldType.NULL) {
+        nullable = true;
+      } else if (type != null) {
+        types.add(type);
+      }
+
+      optional |= descriptor.isOptional();
+
+      var text = descriptor.getDescription() == null ? null : String.valueOf(descriptor.getDescription());
+      if (description == null && text != null && !text.isBlank()) {
+        description = text;
+      }
+    }
+
+    void write(JsonGenerator generator, String path) throws IOException {
+      generator.writeStartObject();
+      generator.writeStringField("path", path);
+      generator.writeNumberField("seen", seen);
+
+      generator.writeArrayFieldStart("types");
+      for (var type : types) {
+        generator.writeString(type.name());
+      }
+      generator.writeEndArray();
+
+      generator.writeBooleanField("nullable", nullable);
+      generator.writeBooleanField("optional", optional);
+      if (description != null) {
+        generator.writeStringField("description", description);
+      }
+      generator.writeEndObject();
+    }
+
+    /**
+     * Generated descriptors are typed by {@link JsonNodeType}, custom ones by {@link JsonFieldType} or not at all.
+     */
+    private static JsonFieldType type(Object type) {
+      if (type instanceof JsonNodeType nodeType) {
+        return DocsGenerateUtil.fieldType(nodeType);
+      }
+
+      return type instanceof JsonFieldType fieldType ? fieldType : null;
+    }
+  }
+}
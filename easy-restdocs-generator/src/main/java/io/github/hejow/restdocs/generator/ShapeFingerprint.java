@@ -0,0 +1,147 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 128-bit hash of the structure of a body: keys, node types and nesting. <br>
+ * Values are ignored, except whether a string is blank, since blank values make their field optional.
+ * Bodies with equal fingerprints produce equal descriptors, so the fingerprint keys the {@link DescriptorCache}.
+ *
+ * <br>
+ *
+ * When array elements are merged, an array contributes its distinct element shapes in order of first appearance,
+ * so lists that only differ in length share a fingerprint. Under a field limit every element spends the budget,
+ * so all of them are mixed in. Whether objects were left out of a sample is mixed in as well.
+ * Every token read or skipped is mirrored into a {@link PrettyBody.TokenCopy}.
+ */
+record ShapeFingerprint(long first, long second) {
+  private static final long FIRST_SEED = 0xcbf29ce484222325L;
+  private static final long SECOND_SEED = 0x84222325cbf29ce4L;
+  private static final long FIRST_PRIME = 0x100000001b3L;
+  private static final long SECOND_PRIME = 0x9e3779b97f4a7c15L;
+  private static final long FIELD_SEPARATOR = -1L;
+  private static final long OBJECTS_LEFT_OUT = -2L;
+  private static final long BLANK_STRING = 1L << 32;
+
+  /**
+   * @param customFields mixed in, since overridden fields are left out of the descriptors
+   * @return the fingerprint, or {@code null} when the body is not a JSON object and has no fields to cache
+   */
+  static ShapeFingerprint of(
+    byte[] content,
+    JsonEngine engine,
+    DocsConfiguration configuration,
+    CustomFieldIndex customFields,
+    PrettyBody.TokenCopy copy
+  ) throws IOException {
+    try (var parser = engine.createParser(content)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+
+      copy.event(parser);
+
+      var sampling = configuration.getArraySampling();
+      var signature = customFields.signature();
+      var distinctElements = configuration.isMergeArrays() && !sampling.isRandom() && !configuration.getTraversalLimits().limitsFields();
+
+      Deque<Frame> frames = new ArrayDeque<>();
+      frames.push(new Frame(JsonToken.START_OBJECT, false));
+
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        var frame = frames.peek();
+
+        switch (token) {
+          case FIELD_NAME -> {
+            copy.event(parser);
+            var name = parser.currentName();
+            for (var index = 0; index < name.length(); index++) {
+              frame.mix(name.charAt(index));
+            }
+            frame.mix(FIELD_SEPARATOR);
+          }
+          case START_OBJECT, START_ARRAY -> {
+            if (frame.array && !sampling.isRandom() && !sampling.includes(frame.elements++)) {
+              frame.leavesObjectsOut |= token == JsonToken.START_OBJECT;
+              copy.skip(parser);
+              continue;
+            }
+
+            copy.event(parser);
+            frames.push(new Frame(token, token == JsonToken.START_ARRAY && distinctElements));
+          }
+          case END_OBJECT, END_ARRAY -> {
+            copy.event(parser);
+            var closed = frames.pop();
+            if (closed.leavesObjectsOut) {
+              closed.mix(OBJECTS_LEFT_OUT);
+            }
+            closed.mix(token.ordinal());
+
+            if (frames.isEmpty()) {
+              copy.complete();
+              closed.mix(signature);
+              return new ShapeFingerprint(closed.first, closed.second);
+            }
+
+            frames.peek().child(closed.first, closed.second);
+          }
+          default -> {
+            copy.event(parser);
+
+            if (frame.array && !sampling.isRandom() && !sampling.includes(frame.elements++)) {
+              continue;
+            }
+
+            var shape = isBlankString(parser, token) ? token.ordinal() | BLANK_STRING : token.ordinal();
+            frame.child(shape, ~shape);
+          }
+        }
+      }
+
+      return null;
+    }
+  }
+
+  private static boolean isBlankString(com.fasterxml.jackson.core.JsonParser parser, JsonToken token) throws IOException {
+    return token == JsonToken.VALUE_STRING
+      && DocsGenerateUtil.isBlank(CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()));
+  }
+
+  private static final class Frame {
+    private final boolean array;
+    private final Set<Long> distinctElements;
+    private long first = FIRST_SEED;
+    private long second = SECOND_SEED;
+    private int elements;
+    private boolean leavesObjectsOut;
+
+    private Frame(JsonToken start, boolean distinctElements) {
+      this.array = start == JsonToken.START_ARRAY;
+      this.distinctElements = distinctElements ? new HashSet<>() : null;
+      mix(start.ordinal());
+    }
+
+    void child(long childFirst, long childSecond) {
+      if (distinctElements != null && !distinctElements.add(childFirst ^ Long.rotateLeft(childSecond, 32))) {
+        return;
+      }
+
+      mix(childFirst);
+      mix(childSecond);
+    }
+
+    void mix(long value) {
+      first = (first ^ value) * FIRST_PRIME;
+      second = Long.rotateLeft(second ^ value, 31) * SECOND_PRIME;
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package io.github.hejow.restdocs.generator;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Fails a test class once its last test ran if {@link AsyncSnippetWriter} could not write one of its snippets. <br>
+ * Registered through {@code META-INF/services}, JUnit only loads it with {@code junit.jupiter.extensions.autodetection.enabled=true},
+ * which {@code docsTest} of the Gradle plugin sets. Classes of {@link EasyRestDocsTest} are covered either way.
+ *
+ * @see SnippetFlushListener
+ */
+public final class SnippetFlushExtension implements AfterAllCallback {
+  @Override
+  public void afterAll(ExtensionContext context) {
+    AsyncSnippetWriter.flush(context.getRequiredTestClass());
+  }
+}
@@ -0,0 +1,23 @@
+package io.github.hejow.restdocs.generator;
+
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+/**
+ * Flushes queued and stored snippets before the JUnit run ends, registered through {@code META-INF/services}. <br>
+ * The launcher only logs what a listener throws, so failed writes have to be reported to their test class earlier,
+ * see {@link SnippetFlushExtension}.
+ *
+ * @see AsyncSnippetWriter
+ * @see SnippetStore
+ */
+public final class SnippetFlushListener implements TestExecutionListener {
+  @Override
+  public void testPlanExecutionFinished(TestPlan testPlan) {
+    try {
+      AsyncSnippetWriter.flushAll();
+    } finally {
+      SnippetStore.flushAll();
+    }
+  }
+}
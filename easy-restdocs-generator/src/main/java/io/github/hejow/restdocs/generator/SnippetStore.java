@@ -0,0 +1,277 @@
+package io.github.hejow.restdocs.generator;
+
+import com.epages.restdocs.apispec.DescriptorValidator;
+import com.epages.restdocs.apispec.ResourceDocumentation;
+import com.epages.restdocs.apispec.ResourceSnippet;
+import com.epages.restdocs.apispec.ResourceSnippetParameters;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.restdocs.RestDocumentationContext;
+import org.springframework.restdocs.operation.Operation;
+import org.springframework.restdocs.snippet.PlaceholderResolverFactory;
+import org.springframework.restdocs.snippet.RestDocumentationContextPlaceholderResolverFactory;
+import org.springframework.restdocs.snippet.Snippet;
+import org.springframework.restdocs.snippet.WriterResolver;
+import org.springframework.restdocs.templates.TemplateFormat;
+import org.springframework.util.PropertyPlaceholderHelper;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Appends the snippets of documented calls to one NDJSON file per output directory and test JVM,
+ * instead of a directory of small files per call. Each line holds one snippet:
+ *
+ * <br>
+ *
+ * <pre>
+ * {"operation":"user-save","snippet":"resource.json","content":{...}}
+ * {"operation":"user-save","snippet":"http-request.adoc","content":"[source,http,options=\"nowrap\"]..."}
+ * </pre>
+ *
+ * Files are named {@code easy-restdocs-<start millis>-<pid>.ndjson}, so the stores of later runs sort after earlier ones
+ * and the Gradle plugin keeps their lines. Lines are buffered and flushed when the JUnit run finishes, or by {@link #flushAll()}.
+ *
+ * <br>
+ *
+ * restdocs-api-spec writes {@code resource.json} through a writer of its own, so its model is rendered in memory instead
+ * and appended to the store without touching disk. Where that model can't be reached, the file is written next to the store.
+ *
+ * @see DocsConfiguration.Builder#snippetStore(boolean)
+ */
+public final class SnippetStore {
+  static final String FILE_PREFIX = "easy-restdocs-";
+  static final String FILE_SUFFIX = ".ndjson";
+  static final String RUN = "%013d-%d".formatted(System.currentTimeMillis(), ProcessHandle.current().pid());
+
+  private static final String CONFIGURATION_ATTRIBUTE = "org.springframework.restdocs.configuration";
+  private static final String DEFAULT_EXTENSION = "adoc";
+  private static final String RESOURCE_SNIPPET = "resource.json";
+  private static final String RESOLVE = "resolve";
+  private static final PropertyPlaceholderHelper PLACEHOLDER_HELPER = new PropertyPlaceholderHelper("{", "}");
+  private static final RestDocumentationContextPlaceholderResolverFactory RESOLVER_FACTORY = new RestDocumentationContextPlaceholderResolverFactory();
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  // private members of ResourceSnippet rendering resource.json, null when this version of restdocs-api-spec has none
+  private static final Method CREATE_MODEL;
+  private static final Field OBJECT_MAPPER;
+
+  private static final Map<File, SnippetStore> stores = new ConcurrentHashMap<>();
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread(SnippetStore::closeAll, "easy-restdocs-store-close"));
+
+    Method createModel;
+    Field objectMapper;
+    try {
+      createModel = ResourceSnippet.class.getDeclaredMethod("createModel", Operation.class, PlaceholderResolverFactory.class, RestDocumentationContext.class);
+      objectMapper = ResourceSnippet.class.getDeclaredField("objectMapper");
+      createModel.setAccessible(true);
+      objectMapper.setAccessible(true);
+    } catch (ReflectiveOperationException | RuntimeException exception) {
+      createModel = null;
+      objectMapper = null;
+    }
+    CREATE_MODEL = createModel;
+    OBJECT_MAPPER = objectMapper;
+  }
+
+  private final File file;
+  private final OutputStream output;
+
+  private SnippetStore(File directory) throws IOException {
+    Files.createDirectories(directory.toPath());
+    this.file = new File(directory, FILE_PREFIX + RUN + FILE_SUFFIX);
+    this.output = new BufferedOutputStream(new FileOutputStream(file, true), 64 * 1024);
+  }
+
+  /**
+   * Writes the buffered lines of every store to disk.
+   *
+   * @throws UncheckedIOException if a store could not be written
+   */
+  public static void flushAll() {
+    for (var store : stores.values()) {
+      store.flush();
+    }
+  }
+
+  /**
+   * Routes the snippets of the documented call into the store of its output directory.
+   */
+  @SuppressWarnings("unchecked")
+  static void install(MockHttpServletRequest request) {
+    var configuration = (Map<String, Object>) request.getAttribute(CONFIGURATION_ATTRIBUTE);
+    if (configuration == null || !(configuration.get(WriterResolver.class.getName()) instanceof WriterResolver resolver)) {
+      return;
+    }
+
+    if (Proxy.isProxyClass(resolver.getClass())) {
+      return;
+    }
+
+    var stored = new HashMap<>(configuration);
+    stored.put(WriterResolver.class.getName(), storing(resolver, extension(configuration.get(TemplateFormat.class.getName()))));
+    request.setAttribute(CONFIGURATION_ATTRIBUTE, stored);
+  }
+
+  /**
+   * Validates the call against {@code parameters} and appends its {@code resource.json} to the store,
+   * as {@link ResourceSnippet} would have written it.
+   */
+  static Snippet capturing(ResourceSnippetParameters parameters) {
+    var resource = ResourceDocumentation.resource(parameters);
+
+    return operation -> {
+      if (CREATE_MODEL == null
+        || !(operation.getAttributes().get(RestDocumentationContext.class.getName()) instanceof RestDocumentationContext context)) {
+        resource.document(operation);
+        return;
+      }
+
+      DescriptorValidator.INSTANCE.validatePresentParameters(parameters, operation);
+      of(context.getOutputDirectory()).append(resolve(operation.getName(), context), RESOURCE_SNIPPET, rendered(resource, operation, context));
+    };
+  }
+
+  /**
+   * Builds the model of {@code resource.json} now, it is serialized on one line when appended.
+   */
+  private static ContentWriter rendered(ResourceSnippet resource, Operation operation, RestDocumentationContext context) throws IOException {
+    try {
+      var model = CREATE_MODEL.invoke(resource, operation, RESOLVER_FACTORY, context);
+      var writer = ((ObjectMapper) OBJECT_MAPPER.get(resource)).writer().without(SerializationFeature.INDENT_OUTPUT);
+      return generator -> writer.writeValue(generator, model);
+    } catch (InvocationTargetException exception) {
+      if (exception.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IOException("Failed to render " + RESOURCE_SNIPPET + " of " + operation.getName(), exception.getCause());
+    } catch (IllegalAccessException exception) {
+      throw new IOException("Failed to render " + RESOURCE_SNIPPET + " of " + operation.getName(), exception);
+    }
+  }
+
+  private static SnippetStore of(File directory) {
+    return stores.computeIfAbsent(directory.getAbsoluteFile(), key -> {
+      try {
+        return new SnippetStore(key);
+      } catch (IOException exception) {
+        throw new UncheckedIOException("Failed to open snippet store in " + key, exception);
+      }
+    });
+  }
+
+  private static String resolve(String operationName, RestDocumentationContext context) {
+    return PLACEHOLDER_HELPER.replacePlaceholders(operationName, RESOLVER_FACTORY.create(context));
+  }
+
+  private static String extension(Object templateFormat) {
+    return templateFormat instanceof TemplateFormat format ? format.getFileExtension() : DEFAULT_EXTENSION;
+  }
+
+  /**
+   * One line is rendered outside the lock, appending it is the only contended part.
+   */
+  private void append(String operationName, String snippetName, ContentWriter content) throws IOException {
+    var line = new ByteArrayOutputStream();
+
+    try (var generator = JSON_FACTORY.createGenerator(line)) {
+      generator.writeStartObject();
+      generator.writeStringField("operation", operationName);
+      generator.writeStringField("snippet", snippetName);
+      generator.writeFieldName("content");
+      content.write(generator);
+      generator.writeEndObject();
+    }
+
+    line.write('\n');
+
+    synchronized (this) {
+      line.writeTo(output);
+    }
+  }
+
+  private synchronized void flush() {
+    try {
+      output.flush();
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Failed to flush snippet store " + file, exception);
+    }
+  }
+
+  private static void closeAll() {
+    for (var store : stores.values()) {
+      synchronized (store) {
+        try {
+          store.output.close();
+        } catch (IOException ignored) {
+          // the JVM is exiting, nothing is left to report to
+        }
+      }
+    }
+  }
+
+  /**
+   * Hands out in-memory writers that append their content to the store once closed.
+   * Other methods go to {@code delegate}, as in {@link AsyncSnippetWriter}.
+   */
+  private static WriterResolver storing(WriterResolver delegate, String extension) {
+    InvocationHandler handler = (proxy, method, arguments) -> {
+      if (!RESOLVE.equals(method.getName())) {
+        try {
+          return method.invoke(delegate, arguments);
+        } catch (InvocationTargetException exception) {
+          throw exception.getCause();
+        }
+      }
+
+      var operationName = (String) arguments[0];
+      var snippetName = (String) arguments[1];
+      var context = (RestDocumentationContext) arguments[2];
+      if (context == null) {
+        return delegate.resolve(operationName, snippetName, null);
+      }
+
+      var store = of(context.getOutputDirectory());
+      var resolved = resolve(operationName, context);
+
+      return new StringWriter() {
+        private boolean closed;
+
+        @Override
+        public void close() throws IOException {
+          if (!closed) {
+            closed = true;
+            store.append(resolved, snippetName + "." + extension, generator -> generator.writeString(toString()));
+          }
+        }
+      };
+    };
+
+    return (WriterResolver) Proxy.newProxyInstance(WriterResolver.class.getClassLoader(), new Class<?>[]{WriterResolver.class}, handler);
+  }
+
+  @FunctionalInterface
+  private interface ContentWriter {
+    void write(JsonGenerator generator) throws IOException;
+  }
+}
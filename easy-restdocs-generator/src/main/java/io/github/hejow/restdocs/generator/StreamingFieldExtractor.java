@@ -0,0 +1,220 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import org.springframework.restdocs.payload.FieldDescriptor;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Extracts {@link FieldDescriptor}s straight from the token stream of a body without building a {@code JsonNode} tree. <br>
+ * Emits the same descriptors, in the same order, as {@link TreeFieldExtractor}.
+ * Every token read or skipped is mirrored into a {@link PrettyBody.TokenCopy}.
+ * Containers past {@link TraversalLimits} are skipped as well, so they are copied without being inspected,
+ * and documented by subsections so the body still passes the payload validation of REST Docs.
+ */
+final class StreamingFieldExtractor {
+  private static final String BLANK = "";
+
+  private StreamingFieldExtractor() {
+    throw new AssertionError("Can't be initialize!");
+  }
+
+  public static List<FieldDescriptor> extract(
+    byte[] content,
+    JsonEngine engine,
+    DocsConfiguration configuration,
+    CustomFieldIndex customFields,
+    PrettyBody.TokenCopy copy
+  ) throws IOException {
+    try (var parser = engine.createParser(content)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return Collections.emptyList();
+      }
+
+      copy.event(parser);
+
+      var sampling = configuration.getArraySampling();
+      var limits = configuration.getTraversalLimits();
+      var inspected = 0;
+      var collector = new DescriptorCollector(configuration.isMergeArrays(), configuration.getDescriptionStrategy());
+
+      var root = FieldPath.root();
+
+      Deque<Frame> frames = new ArrayDeque<>();
+      frames.push(Frame.object(root, root, customFields.root()));
+
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        switch (token) {
+          case FIELD_NAME -> copy.event(parser);
+          case END_OBJECT -> {
+            copy.event(parser);
+            frames.pop();
+          }
+          case END_ARRAY -> {
+            copy.event(parser);
+            var frame = frames.pop();
+
+            if (frame.elements == 0 && !frame.cursor.isCovered()) {
+              collector.field(frame.path, frame.scope, BLANK, JsonNodeType.ARRAY);
+            }
+
+            if (frame.leavesObjectsOut && !frame.cursor.element().isPruned()) {
+              collector.leftOut(frame.elementPath);
+              collector.subsection(frame.elementPath, frame.scope, JsonNodeType.OBJECT);
+            }
+
+            collector.array(frame.elementPath, frame.scope, frame.containsObjects);
+          }
+          default -> {
+            var parent = frames.peek();
+
+            if (parent.elementPath != null) {
+              if (!sampling.includes(parent.elements++)) {
+                parent.leavesObjectsOut |= token == JsonToken.START_OBJECT;
+                copy.skip(parser);
+                continue;
+              }
+
+              if (token == JsonToken.START_OBJECT) {
+                var cursor = parent.cursor.element();
+
+                if (cursor.isPruned()) {
+                  copy.skip(parser);
+                  continue;
+                }
+
+                if (limits.isExhausted(inspected)) {
+                  parent.leavesObjectsOut = true;
+                  copy.skip(parser);
+                  continue;
+                }
+
+                if (limits.isOpaque(frames.size() + 1)) {
+                  copy.skip(parser);
+                  if (!cursor.isCovered()) {
+                    collector.subsection(parent.elementPath, parent.scope, JsonNodeType.OBJECT);
+                  }
+                  continue;
+                }
+
+                copy.event(parser);
+                parent.containsObjects = true;
+                collector.element(parent.elementPath);
+                frames.push(Frame.object(parent.elementPath, parent.elementPath, cursor));
+                continue;
+              }
+
+              // scalars and nested arrays are documented by the array itself
+              copy.skip(parser);
+              if (!parent.cursor.isCovered()) {
+                collector.field(parent.path, parent.scope, BLANK, JsonNodeType.ARRAY);
+              }
+              continue;
+            }
+
+            var cursor = parent.cursor.child(parser.currentName());
+
+            if (cursor.isPruned()) {
+              copy.skip(parser);
+              continue;
+            }
+
+            var path = parent.path.child(parser.currentName());
+            var exhausted = limits.isExhausted(inspected);
+
+            if (!exhausted) {
+              inspected++;
+            }
+
+            // fields past the budget and containers past the max depth are skipped, a subsection documents all of them
+            if (exhausted || (token.isStructStart() && limits.isOpaque(frames.size() + 1))) {
+              copy.skip(parser);
+              if (!cursor.isCovered()) {
+                collector.subsection(path, parent.scope, nodeType(token));
+              }
+              continue;
+            }
+
+            copy.event(parser);
+
+            switch (token) {
+              case START_OBJECT -> frames.push(Frame.object(path, parent.scope, cursor));
+              case START_ARRAY -> frames.push(Frame.array(path, parent.scope, cursor));
+              default -> {
+                if (!cursor.isCovered()) {
+                  collector.field(path, parent.scope, text(parser, token, collector.sampleLength()), nodeType(token));
+                }
+              }
+            }
+          }
+        }
+      }
+
+      copy.complete();
+      return collector.toDescriptors();
+    }
+  }
+
+  /**
+   * Long strings are sampled straight from the buffer of the parser, so they are never copied whole.
+   */
+  private static String text(com.fasterxml.jackson.core.JsonParser parser, JsonToken token, int sampleLength) throws IOException {
+    if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+      return String.valueOf(parser.getDoubleValue());
+    }
+
+    if (token != JsonToken.VALUE_STRING || parser.getTextLength() <= sampleLength) {
+      return parser.getText();
+    }
+
+    return DocsGenerateUtil.sample(CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()), sampleLength);
+  }
+
+  private static JsonNodeType nodeType(JsonToken token) {
+    return switch (token) {
+      case VALUE_STRING -> JsonNodeType.STRING;
+      case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> JsonNodeType.NUMBER;
+      case VALUE_TRUE, VALUE_FALSE -> JsonNodeType.BOOLEAN;
+      case VALUE_NULL -> JsonNodeType.NULL;
+      case START_OBJECT -> JsonNodeType.OBJECT;
+      case START_ARRAY -> JsonNodeType.ARRAY;
+      default -> JsonNodeType.POJO;
+    };
+  }
+
+  /**
+   * An open object or array. {@code scope} is the array element the container belongs to,
+   * {@code elementPath} is only set for arrays. {@code leavesObjectsOut} tells if objects were skipped by the sampling or once the field budget was spent.
+   */
+  private static final class Frame {
+    private final FieldPath path;
+    private final FieldPath scope;
+    private final FieldPath elementPath;
+    private final CustomFieldIndex.Cursor cursor;
+    private int elements;
+    private boolean containsObjects;
+    private boolean leavesObjectsOut;
+
+    private Frame(FieldPath path, FieldPath scope, FieldPath elementPath, CustomFieldIndex.Cursor cursor) {
+      this.path = path;
+      this.scope = scope;
+      this.elementPath = elementPath;
+      this.cursor = cursor;
+    }
+
+    static Frame object(FieldPath path, FieldPath scope, CustomFieldIndex.Cursor cursor) {
+      return new Frame(path, scope, null, cursor);
+    }
+
+    static Frame array(FieldPath path, FieldPath scope, CustomFieldIndex.Cursor cursor) {
+      return new Frame(path, scope, path.element(), cursor);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package io.github.hejow.restdocs.generator;
+
+/**
+ * Bounds the part of a body inspected while generating descriptors, so deep or wide payloads cost a fixed amount of work. <br>
+ * Bodies are walked with an explicit stack, so nesting never overflows the call stack, these limits cap the work itself.
+ *
+ * <br>
+ *
+ * <pre>
+ * TraversalLimits.builder()
+ *   .maxDepth(16)
+ *   .maxFields(2_000)
+ *   .build();
+ * </pre>
+ *
+ * <ul>
+ *   <li>Objects and arrays nested deeper than {@code maxDepth} are documented by a single {@code OBJECT} or {@code ARRAY} subsection.</li>
+ *   <li>Once {@code maxFields} fields were inspected, each remaining field of the open objects is documented by an optional subsection,
+ *   and the objects left in the open arrays by one on their elements.</li>
+ * </ul>
+ *
+ * Subsections cover everything below them, so the payload validation of REST Docs still passes.
+ *
+ * Elements inspected per array are bounded by {@link ArraySampling}.
+ *
+ * @see DocsConfiguration.Builder#traversalLimits(TraversalLimits)
+ */
+public final class TraversalLimits {
+  private static final int UNBOUNDED = Integer.MAX_VALUE;
+  private static final TraversalLimits NONE = new TraversalLimits(UNBOUNDED, UNBOUNDED);
+
+  private final int maxDepth;
+  private final int maxFields;
+
+  private TraversalLimits(int maxDepth, int maxFields) {
+    this.maxDepth = maxDepth;
+    this.maxFields = maxFields;
+  }
+
+  /**
+   * Whole bodies are inspected (default).
+   */
+  public static TraversalLimits none() {
+    return NONE;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  public int getMaxFields() {
+    return maxFields;
+  }
+
+  /**
+   * The field budget is spent in document order, which a parallel walk doesn't follow.
+   */
+  boolean limitsFields() {
+    return maxFields != UNBOUNDED;
+  }
+
+  /**
+   * @param depth objects and arrays enclosing a container, the root object included, plus the container itself
+   */
+  boolean isOpaque(int depth) {
+    return depth > maxDepth;
+  }
+
+  boolean isExhausted(int inspectedFields) {
+    return inspectedFields >= maxFields;
+  }
+
+  public static class Builder {
+    private int maxDepth = UNBOUNDED;
+    private int maxFields = UNBOUNDED;
+
+    private Builder() {
+    }
+
+    /**
+     * Levels of nested objects and arrays inspected, the root object being the first one. Deeper containers are subsections.
+     */
+    public Builder maxDepth(int maxDepth) {
+      if (maxDepth < 1) {
+        throw new IllegalArgumentException("Max depth must be positive");
+      }
+
+      this.maxDepth = maxDepth;
+      return this;
+    }
+
+    /**
+     * Fields inspected per body, each element of an array counting its own. Later fields are documented by subsections.
+     */
+    public Builder maxFields(int maxFields) {
+      if (maxFields < 1) {
+        throw new IllegalArgumentException("Max fields must be positive");
+      }
+
+      this.maxFields = maxFields;
+      return this;
+    }
+
+    public TraversalLimits build() {
+      return new TraversalLimits(maxDepth, maxFields);
+    }
+  }
+}
@@ -0,0 +1,420 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import org.springframework.restdocs.payload.FieldDescriptor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Walks a {@code JsonNode} tree with an explicit stack instead of nested streams. <br>
+ * Large trees can be split into independent subtrees and walked on the executor of {@link DocsConfiguration}.
+ * Containers past the max depth of {@link TraversalLimits} are documented by subsections without being walked.
+ */
+final class TreeFieldExtractor {
+  private static final String BLANK = "";
+  private static final int TASKS_PER_THREAD = 4;
+
+  private TreeFieldExtractor() {
+    throw new AssertionError("Can't be initialize!");
+  }
+
+  public static List<FieldDescriptor> extract(JsonNode root, DocsConfiguration configuration, CustomFieldIndex customFields) {
+    if (root == null || !root.isObject()) {
+      return Collections.emptyList();
+    }
+
+    var collector = new DescriptorCollector(configuration.isMergeArrays(), configuration.getDescriptionStrategy());
+    var rootPath = FieldPath.root();
+    var unit = Unit.subtree(root, rootPath, rootPath, customFields.root(), 1);
+
+    if (configuration.splitsWalks() && countNodes(root, configuration.getParallelThreshold()) >= configuration.getParallelThreshold()) {
+      extractInParallel(unit, configuration, collector);
+    } else {
+      walk(unit, configuration.getArraySampling(), configuration.getTraversalLimits(), collector);
+    }
+
+    return collector.toDescriptors();
+  }
+
+  private static void extractInParallel(Unit root, DocsConfiguration configuration, DescriptorCollector collector) {
+    var sampling = configuration.getArraySampling();
+    var limits = configuration.getTraversalLimits();
+    var units = split(root, configuration.getParallelism() * TASKS_PER_THREAD, sampling, limits, collector);
+    var executor = configuration.executor();
+
+    var results = new ArrayList<Future<DescriptorCollector>>(units.size());
+    for (var unit : units) {
+      results.add(unit.isLeaf()
+        ? CompletableFuture.completedFuture(null)
+        : executor.submit(() -> {
+          var subtreeCollector = new DescriptorCollector(configuration.isMergeArrays(), configuration.getDescriptionStrategy());
+          walk(unit, sampling, limits, subtreeCollector);
+          return subtreeCollector;
+        }));
+    }
+
+    try {
+      for (var index = 0; index < units.size(); index++) {
+        var unit = units.get(index);
+
+        if (unit.isSubsection()) {
+          collector.subsection(unit.path, unit.scope, unit.type);
+        } else if (unit.isLeaf()) {
+          collector.field(unit.path, unit.scope, unit.text, unit.type);
+        } else {
+          collector.addAll(results.get(index).get());
+        }
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Parallel traversal interrupted", exception);
+    } catch (ExecutionException exception) {
+      throw new IllegalStateException("Parallel traversal failed", exception.getCause());
+    }
+  }
+
+  /**
+   * Expands the tree breadth first, in document order, until there are enough independent subtrees to keep the executor busy.
+   */
+  private static List<Unit> split(Unit root, int target, ArraySampling sampling, TraversalLimits limits, DescriptorCollector collector) {
+    List<Unit> units = List.of(root);
+
+    var expanded = true;
+    while (expanded && units.size() < target) {
+      expanded = false;
+
+      var next = new ArrayList<Unit>();
+      for (var unit : units) {
+        if (unit.isLeaf()) {
+          next.add(unit);
+          continue;
+        }
+
+        expanded = true;
+        expand(unit, next, sampling, limits, collector);
+      }
+
+      units = next;
+    }
+
+    return units;
+  }
+
+  private static void expand(Unit unit, List<Unit> units, ArraySampling sampling, TraversalLimits limits, DescriptorCollector collector) {
+    if (unit.node.isArray()) {
+      var elementPath = unit.path.element();
+      var containsObjects = false;
+
+      var elements = sampling.elements(unit.node);
+      while (elements.hasNext()) {
+        var element = elements.next();
+
+        if (element.isObject()) {
+          var cursor = unit.cursor.element();
+          if (cursor.isPruned()) {
+            continue;
+          }
+
+          if (limits.isOpaque(unit.depth + 1)) {
+            if (!cursor.isCovered()) {
+              units.add(Unit.subsection(elementPath, unit.scope, JsonNodeType.OBJECT));
+            }
+            continue;
+          }
+
+          containsObjects = true;
+          collector.element(elementPath);
+          units.add(Unit.subtree(element, elementPath, elementPath, cursor, unit.depth + 1));
+          continue;
+        }
+
+        if (!unit.cursor.isCovered()) {
+          units.add(Unit.arrayLeaf(unit.path, unit.scope));
+        }
+      }
+
+      if (sampling.leavesObjectsOut(unit.node) && !unit.cursor.element().isPruned()) {
+        collector.leftOut(elementPath);
+        units.add(Unit.subsection(elementPath, unit.scope, JsonNodeType.OBJECT));
+      }
+
+      collector.array(elementPath, unit.scope, containsObjects);
+      return;
+    }
+
+    var fields = unit.node.fields();
+    while (fields.hasNext()) {
+      var field = fields.next();
+      var node = field.getValue();
+      var cursor = unit.cursor.child(field.getKey());
+
+      if (cursor.isPruned() || (isLeaf(node) && cursor.isCovered())) {
+        continue;
+      }
+
+      var path = unit.path.child(field.getKey());
+
+      if (isOpaque(node, unit.depth + 1, limits)) {
+        if (!cursor.isCovered()) {
+          units.add(Unit.subsection(path, unit.scope, node.getNodeType()));
+        }
+        continue;
+      }
+
+      units.add(switch (node.getNodeType()) {
+        case OBJECT, ARRAY -> isLeaf(node) ? Unit.arrayLeaf(path, unit.scope) : Unit.subtree(node, path, unit.scope, cursor, unit.depth + 1);
+        default -> Unit.leaf(path, unit.scope, DocsGenerateUtil.sample(node.asText(), collector.sampleLength()), node.getNodeType());
+      });
+    }
+  }
+
+  /**
+   * Once the field budget of {@code limits} is spent, the rest of the open containers is documented by subsections
+   * without inspecting what they hold.
+   */
+  private static void walk(Unit unit, ArraySampling sampling, TraversalLimits limits, DescriptorCollector collector) {
+    var inspected = 0;
+
+    Deque<Frame> frames = new ArrayDeque<>();
+    frames.push(Frame.of(unit.node, unit.path, unit.scope, unit.cursor, sampling, unit.depth));
+
+    while (!frames.isEmpty()) {
+      var frame = frames.peek();
+
+      if (frame.elementPath != null) {
+        if (!frame.elements.hasNext()) {
+          frames.pop();
+
+          if ((frame.leavesObjectsOut || sampling.leavesObjectsOut(frame.node)) && !frame.cursor.element().isPruned()) {
+            collector.leftOut(frame.elementPath);
+            collector.subsection(frame.elementPath, frame.scope, JsonNodeType.OBJECT);
+          }
+
+          collector.array(frame.elementPath, frame.scope, frame.containsObjects);
+          continue;
+        }
+
+        var element = frame.elements.next();
+
+        if (element.isObject()) {
+          var cursor = frame.cursor.element();
+          if (cursor.isPruned()) {
+            continue;
+          }
+
+          if (limits.isExhausted(inspected)) {
+            frame.leavesObjectsOut = true;
+            continue;
+          }
+
+          if (limits.isOpaque(frame.depth + 1)) {
+            if (!cursor.isCovered()) {
+              collector.subsection(frame.elementPath, frame.scope, JsonNodeType.OBJECT);
+            }
+            continue;
+          }
+
+          frame.containsObjects = true;
+          collector.element(frame.elementPath);
+          frames.push(Frame.of(element, frame.elementPath, frame.elementPath, cursor, sampling, frame.depth + 1));
+          continue;
+        }
+
+        // scalars and nested arrays are documented by the array itself
+        if (!frame.cursor.isCovered()) {
+          collector.field(frame.path, frame.scope, BLANK, JsonNodeType.ARRAY);
+        }
+        continue;
+      }
+
+      if (!frame.fields.hasNext()) {
+        frames.pop();
+        continue;
+      }
+
+      var field = frame.fields.next();
+      var child = field.getValue();
+      var cursor = frame.cursor.child(field.getKey());
+
+      if (cursor.isPruned()) {
+        continue;
+      }
+
+      var exhausted = limits.isExhausted(inspected);
+
+      if (!exhausted) {
+        inspected++;
+      }
+
+      var opaque = exhausted || isOpaque(child, frame.depth + 1, limits);
+
+      if ((isLeaf(child) || opaque) && cursor.isCovered()) {
+        continue;
+      }
+
+      var childPath = frame.path.child(field.getKey());
+
+      // fields past the budget and containers past the max depth are not walked, a subsection documents all of them
+      if (opaque) {
+        collector.subsection(childPath, frame.scope, child.getNodeType());
+        continue;
+      }
+
+      switch (child.getNodeType()) {
+        case OBJECT -> frames.push(Frame.of(child, childPath, frame.scope, cursor, sampling, frame.depth + 1));
+        case ARRAY -> {
+          if (child.isEmpty()) {
+            collector.field(childPath, frame.scope, BLANK, JsonNodeType.ARRAY);
+          } else {
+            frames.push(Frame.of(child, childPath, frame.scope, cursor, sampling, frame.depth + 1));
+          }
+        }
+        default -> collector.field(childPath, frame.scope, DocsGenerateUtil.sample(child.asText(), collector.sampleLength()), child.getNodeType());
+      }
+    }
+  }
+
+  /**
+   * Values documented by a single descriptor, scalars and empty arrays.
+   */
+  private static boolean isLeaf(JsonNode node) {
+    return node.isValueNode() || (node.isArray() && node.isEmpty());
+  }
+
+  /**
+   * Containers past the max depth are documented by a single field, empty arrays included.
+   */
+  private static boolean isOpaque(JsonNode node, int depth, TraversalLimits limits) {
+    return node.isContainerNode() && limits.isOpaque(depth);
+  }
+
+  private static int countNodes(JsonNode root, int limit) {
+    var count = 0;
+
+    Deque<JsonNode> nodes = new ArrayDeque<>();
+    nodes.push(root);
+
+    while (!nodes.isEmpty() && count < limit) {
+      var node = nodes.pop();
+      count++;
+
+      if (node.isContainerNode()) {
+        node.elements().forEachRemaining(nodes::push);
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * An open object or array. {@code scope} is the array element the container belongs to,
+   * {@code elementPath} and {@code elements} are only set for arrays. {@code depth} is 1 for the root object.
+   * {@code leavesObjectsOut} tells if objects were skipped once the field budget was spent.
+   */
+  private static final class Frame {
+    private final JsonNode node;
+    private final FieldPath path;
+    private final FieldPath scope;
+    private final Iterator<Map.Entry<String, JsonNode>> fields;
+    private final FieldPath elementPath;
+    private final Iterator<JsonNode> elements;
+    private final CustomFieldIndex.Cursor cursor;
+    private final int depth;
+    private boolean containsObjects;
+    private boolean leavesObjectsOut;
+
+    private Frame(
+      JsonNode node,
+      FieldPath path,
+      FieldPath scope,
+      Iterator<Map.Entry<String, JsonNode>> fields,
+      FieldPath elementPath,
+      Iterator<JsonNode> elements,
+      CustomFieldIndex.Cursor cursor,
+      int depth
+    ) {
+      this.node = node;
+      this.path = path;
+      this.scope = scope;
+      this.fields = fields;
+      this.elementPath = elementPath;
+      this.elements = elements;
+      this.cursor = cursor;
+      this.depth = depth;
+    }
+
+    static Frame of(JsonNode node, FieldPath path, FieldPath scope, CustomFieldIndex.Cursor cursor, ArraySampling sampling, int depth) {
+      return node.isArray()
+        ? new Frame(node, path, scope, null, path.element(), sampling.elements(node), cursor, depth)
+        : new Frame(node, path, scope, node.fields(), null, null, cursor, depth);
+    }
+  }
+
+  /**
+   * Either a subtree still to be walked, or a single field or subsection already resolved while splitting.
+   */
+  private static final class Unit {
+    private final JsonNode node;
+    private final FieldPath path;
+    private final FieldPath scope;
+    private final String text;
+    private final JsonNodeType type;
+    private final CustomFieldIndex.Cursor cursor;
+    private final int depth;
+    private final boolean subsection;
+
+    private Unit(
+      JsonNode node,
+      FieldPath path,
+      FieldPath scope,
+      String text,
+      JsonNodeType type,
+      CustomFieldIndex.Cursor cursor,
+      int depth,
+      boolean subsection
+    ) {
+      this.node = node;
+      this.path = path;
+      this.scope = scope;
+      this.text = text;
+      this.type = type;
+      this.cursor = cursor;
+      this.depth = depth;
+      this.subsection = subsection;
+    }
+
+    static Unit subtree(JsonNode node, FieldPath path, FieldPath scope, CustomFieldIndex.Cursor cursor, int depth) {
+      return new Unit(node, path, scope, null, null, cursor, depth, false);
+    }
+
+    static Unit leaf(FieldPath path, FieldPath scope, String text, JsonNodeType type) {
+      return new Unit(null, path, scope, text, type, CustomFieldIndex.Cursor.NONE, 0, false);
+    }
+
+    static Unit subsection(FieldPath path, FieldPath scope, JsonNodeType type) {
+      return new Unit(null, path, scope, BLANK, type, CustomFieldIndex.Cursor.NONE, 0, true);
+    }
+
+    static Unit arrayLeaf(FieldPath path, FieldPath scope) {
+      return leaf(path, scope, BLANK, JsonNodeType.ARRAY);
+    }
+
+    boolean isLeaf() {
+      return node == null;
+    }
+
+    boolean isSubsection() {
+      return subsection;
+    }
+  }
+}
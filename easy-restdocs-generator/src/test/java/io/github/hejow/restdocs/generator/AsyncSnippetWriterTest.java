@@ -0,0 +1,86 @@
+package io.github.hejow.restdocs.generator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.Extension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.restdocs.ManualRestDocumentation;
+import org.springframework.restdocs.snippet.WriterResolver;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncSnippetWriterTest {
+  private static final String CONFIGURATION_ATTRIBUTE = "org.springframework.restdocs.configuration";
+
+  private final AsyncSnippetWriter writer = AsyncSnippetWriter.shared(8, 1);
+
+  @Test
+  void failedWriteIsReportedToItsTestClassOnly() throws IOException {
+    // given
+    write(FailingTest.class, "save");
+
+    // when, then
+    assertThatCode(() -> AsyncSnippetWriter.flush(AsyncSnippetWriterTest.class)).doesNotThrowAnyException();
+    assertThatThrownBy(() -> AsyncSnippetWriter.flush(FailingTest.class))
+      .isInstanceOf(IllegalStateException.class)
+      .hasRootCauseMessage("disk full")
+      .cause()
+      .hasMessageContaining(FailingTest.class.getName() + "#save");
+  }
+
+  @Test
+  void failedWriteIsNotReportedByLaterCalls() throws IOException {
+    // given
+    write(FailingTest.class, "update");
+    AsyncSnippetWriter.flush(AsyncSnippetWriterTest.class);
+
+    // when, then
+    assertThatCode(() -> writer.install(request())).doesNotThrowAnyException();
+    assertThatThrownBy(AsyncSnippetWriter::flushAll).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void flushExtensionIsAutodetected() {
+    // when
+    var extensions = ServiceLoader.load(Extension.class);
+
+    // then
+    assertThat(extensions).anyMatch(SnippetFlushExtension.class::isInstance);
+  }
+
+  private void write(Class<?> testClass, String testMethodName) throws IOException {
+    var request = request();
+    writer.install(request);
+
+    var documentation = new ManualRestDocumentation();
+    documentation.beforeTest(testClass, testMethodName);
+
+    @SuppressWarnings("unchecked")
+    var configuration = (Map<String, Object>) request.getAttribute(CONFIGURATION_ATTRIBUTE);
+    var resolver = (WriterResolver) configuration.get(WriterResolver.class.getName());
+
+    try (var snippet = resolver.resolve("{method_name}", "http-request", documentation.beforeOperation())) {
+      snippet.write("snippet");
+    }
+  }
+
+  private static MockHttpServletRequest request() {
+    var request = new MockHttpServletRequest();
+    request.setAttribute(CONFIGURATION_ATTRIBUTE, Map.of(WriterResolver.class.getName(), failingResolver()));
+    return request;
+  }
+
+  private static WriterResolver failingResolver() {
+    return (operationName, snippetName, context) -> {
+      throw new IOException("disk full");
+    };
+  }
+
+  private static final class FailingTest {
+  }
+}
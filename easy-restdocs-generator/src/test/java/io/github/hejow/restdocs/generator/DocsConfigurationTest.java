@@ -0,0 +1,34 @@
+package io.github.hejow.restdocs.generator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocsConfigurationTest {
+
+  @Test
+  void configurationsBuiltAlikeShareTheirExecutorAndWriter() {
+    // given
+    var configuration = DocsConfiguration.builder().parallelThreshold(1).parallelism(3).writerThreads(2).build();
+
+    // when
+    var rebuilt = configuration.toBuilder().build();
+
+    // then
+    assertThat(rebuilt.executor()).isSameAs(configuration.executor());
+    assertThat(rebuilt.snippetWriter()).isSameAs(configuration.snippetWriter());
+  }
+
+  @Test
+  void configurationsWithOtherThreadsDontShare() {
+    // given
+    var configuration = DocsConfiguration.builder().parallelThreshold(1).parallelism(3).writerThreads(2).build();
+
+    // when
+    var other = configuration.toBuilder().parallelism(5).writerThreads(3).build();
+
+    // then
+    assertThat(other.executor()).isNotSameAs(configuration.executor());
+    assertThat(other.snippetWriter()).isNotSameAs(configuration.snippetWriter());
+  }
+}
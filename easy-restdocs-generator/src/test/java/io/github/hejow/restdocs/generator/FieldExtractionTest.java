@@ -0,0 +1,372 @@
+package io.github.hejow.restdocs.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.payload.FieldDescriptor;
+import org.springframework.restdocs.payload.JsonFieldType;
+import org.springframework.restdocs.payload.SubsectionDescriptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.restdocs.payload.PayloadDocumentation.fieldWithPath;
+import static org.springframework.restdocs.payload.PayloadDocumentation.subsectionWithPath;
+
+/**
+ * Compares every extraction path, streamed, walked as a tree, split over the parallel executor and served from the cache,
+ * with the descriptors the recursive extraction of 1.0.4 produced for the same bodies.
+ */
+class FieldExtractionTest {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final String NESTED = """
+    {"id":1,"name":"kim","profile":{"age":30,"tags":["a","b"],"address":{"city":"Seoul","zip":"04524"}},
+     "matrix":[[1,2],[3]],"orders":[{"id":10,"items":[{"sku":"x","qty":1.5}]},{"id":11,"items":[]}]}
+    """;
+
+  private static final String NULLS_AND_BLANKS = """
+    {"name":"","nick":"  ","age":null,"score":1.5,"active":false,
+     "rows":[{"memo":null},{"memo":"x"},{"memo":""}],"empty":[],"none":{}}
+    """;
+
+  private static final String MIXED_ELEMENTS = """
+    {"items":[{"id":1,"name":"a"},{"id":"2"},{"extra":{"deep":[1]}},{"id":null,"name":"b"}],
+     "groups":[{"members":[{"id":1}]},{"members":[]},{}],
+     "values":[1,"two",3.0,true,null]}
+    """;
+
+  private static final String WILDCARDS = """
+    {"data":{"first":{"id":1,"name":"a"},"second":{"id":2,"name":"b"}},
+     "meta":{"page":1,"links":[{"href":"/next"}]},
+     "items":[{"id":1,"detail":{"code":"x"}},{"id":2}],
+     "name":"kim"}
+    """;
+
+  private static final List<FieldDescriptor> WILDCARD_FIELDS = List.of(
+    fieldWithPath("data.*.id").description("id of any entry"),
+    subsectionWithPath("meta").description("paging"),
+    fieldWithPath("items[].*").description("everything below items[]"),
+    fieldWithPath("name").description("name")
+  );
+
+  private final DocsConfiguration configuration = DocsConfiguration.global();
+
+  @AfterEach
+  void tearDown() {
+    DocsConfiguration.setGlobal(configuration);
+  }
+
+  static Stream<Arguments> bodies() {
+    return Stream.of(
+      Arguments.of(NESTED, List.of()),
+      Arguments.of(NULLS_AND_BLANKS, List.of()),
+      Arguments.of(MIXED_ELEMENTS, List.of()),
+      Arguments.of(WILDCARDS, WILDCARD_FIELDS)
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("bodies")
+  void everyExtractionMatchesTheRecursiveOneWithoutMerging(String body, List<FieldDescriptor> customFields) throws IOException {
+    // given
+    var expected = recursive(body, customFields);
+    var unmerged = DocsConfiguration.builder().mergeArrays(false);
+
+    // when
+    var extractions = extractions(body, customFields, unmerged);
+
+    // then
+    extractions.forEach((name, descriptors) -> assertThat(descriptors).as(name).containsExactlyElementsOf(expected));
+  }
+
+  @ParameterizedTest
+  @MethodSource("bodies")
+  void everyExtractionMergesTheSameFields(String body, List<FieldDescriptor> customFields) throws IOException {
+    // given
+    var expectedPaths = new ArrayList<>(new LinkedHashSet<>(recursive(body, customFields).stream().map(Descriptor::path).toList()));
+
+    // when
+    var extractions = extractions(body, customFields, DocsConfiguration.builder());
+
+    // then
+    var streamed = extractions.get("streamed");
+    assertThat(streamed).extracting(Descriptor::path).containsExactlyElementsOf(expectedPaths);
+    extractions.forEach((name, descriptors) -> assertThat(descriptors).as(name).containsExactlyElementsOf(streamed));
+  }
+
+  @ParameterizedTest
+  @MethodSource("bodies")
+  void everyExtractionSamplesTheSameFields(String body, List<FieldDescriptor> customFields) throws IOException {
+    // given
+    var sampled = DocsConfiguration.builder().arraySampling(ArraySampling.first(1));
+
+    // when
+    var extractions = extractions(body, customFields, sampled);
+
+    // then
+    var streamed = extractions.get("streamed");
+    extractions.forEach((name, descriptors) -> assertThat(descriptors).as(name).containsExactlyElementsOf(streamed));
+  }
+
+  @ParameterizedTest
+  @MethodSource("bodies")
+  void everyExtractionBoundsTheSameFields(String body, List<FieldDescriptor> customFields) throws IOException {
+    // given
+    var deep = DocsConfiguration.builder().traversalLimits(TraversalLimits.builder().maxDepth(2).build());
+    var wide = DocsConfiguration.builder().traversalLimits(TraversalLimits.builder().maxDepth(2).maxFields(3).build());
+
+    // when
+    var deepExtractions = extractions(body, customFields, deep);
+    var wideExtractions = extractions(body, customFields, wide);
+
+    // then
+    deepExtractions.forEach((name, descriptors) -> assertThat(descriptors).as(name).containsExactlyElementsOf(deepExtractions.get("streamed")));
+    wideExtractions.forEach((name, descriptors) -> assertThat(descriptors).as(name).containsExactlyElementsOf(wideExtractions.get("streamed")));
+  }
+
+  @Test
+  void fieldsPastTheLimitsAreCoveredBySubsections() throws IOException {
+    // given
+    var limits = TraversalLimits.builder().maxDepth(3).maxFields(5).build();
+    DocsConfiguration.setGlobal(DocsConfiguration.builder().traversalLimits(limits).descriptorCacheSize(0).build());
+
+    // when
+    var descriptors = extract(MIXED_ELEMENTS, List.of());
+
+    // then
+    assertThat(descriptors).containsExactly(
+      new Descriptor("items[].id", "VARIES", true, "1", false),
+      new Descriptor("items[].name", "STRING", true, "a", false),
+      new Descriptor("items[].extra", "OBJECT", true, "Object", true),
+      new Descriptor("items[]", "OBJECT", true, "Object", true),
+      new Descriptor("groups", "ARRAY", true, "Array", true),
+      new Descriptor("values", "ARRAY", true, "Array", true)
+    );
+  }
+
+  @Test
+  void objectsLeftOutOfTheSampleAreCoveredBySubsection() throws IOException {
+    // given
+    DocsConfiguration.setGlobal(DocsConfiguration.builder().arraySampling(ArraySampling.first(1)).descriptorCacheSize(0).build());
+
+    // when
+    var descriptors = extract(MIXED_ELEMENTS, List.of());
+
+    // then
+    assertThat(descriptors).containsExactly(
+      new Descriptor("items[].id", "NUMBER", true, "1", false),
+      new Descriptor("items[].name", "STRING", true, "a", false),
+      new Descriptor("items[]", "OBJECT", true, "Object", true),
+      new Descriptor("groups[].members[].id", "NUMBER", true, "1", false),
+      new Descriptor("groups[]", "OBJECT", true, "Object", true),
+      new Descriptor("values", "ARRAY", true, "Array", false)
+    );
+  }
+
+  @Test
+  void mergedFieldsAreOptionalWhenSomeElementsLackThem() throws IOException {
+    // given
+    DocsConfiguration.setGlobal(DocsConfiguration.builder().descriptorCacheSize(0).build());
+
+    // when
+    var descriptors = extract(MIXED_ELEMENTS, List.of());
+
+    // then
+    assertThat(descriptors).containsExactly(
+      new Descriptor("items[].id", "VARIES", true, "1", false),
+      new Descriptor("items[].name", "STRING", true, "a", false),
+      new Descriptor("items[].extra.deep", "ARRAY", true, "Array", false),
+      new Descriptor("groups[].members[].id", "NUMBER", true, "1", false),
+      new Descriptor("groups[].members", "ARRAY", true, "Array", false),
+      new Descriptor("values", "ARRAY", true, "Array", false)
+    );
+  }
+
+  @Test
+  void mergedFieldsAreOptionalWhenBlankOrMissing() throws IOException {
+    // given
+    DocsConfiguration.setGlobal(DocsConfiguration.builder().descriptorCacheSize(0).build());
+
+    // when
+    var descriptors = extract(NULLS_AND_BLANKS, List.of());
+
+    // then
+    assertThat(descriptors).contains(
+      new Descriptor("name", "STRING", true, "String", false),
+      new Descriptor("score", "NUMBER", false, "1.5", false),
+      new Descriptor("rows[].memo", "STRING", true, "x", false)
+    );
+  }
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', value = {
+    "{\"name\":\"\"}    | {\"name\":\"bob\"} | false",
+    "{\"name\":\"bob\"} | {\"name\":\" \"}   | true"
+  })
+  void cachedDescriptorsFollowBlankValues(String first, String second, boolean optional) throws IOException {
+    // given
+    DocsConfiguration.setGlobal(DocsConfiguration.builder().descriptorCacheSize(16).build());
+    extract(first, List.of());
+
+    // when
+    var descriptors = extract(second, List.of());
+
+    // then
+    assertThat(descriptors).extracting(Descriptor::optional).containsExactly(optional);
+  }
+
+  @Test
+  void cachedDescriptorsFollowListLengthUnderFieldLimit() throws IOException {
+    // given
+    var limits = TraversalLimits.builder().maxFields(4).build();
+    var longList = "{\"items\":[{\"id\":1},{\"id\":2},{\"id\":3},{\"id\":4}],\"total\":4}";
+    DocsConfiguration.setGlobal(DocsConfiguration.builder().traversalLimits(limits).descriptorCacheSize(0).build());
+    var uncached = extract(longList, List.of());
+
+    DocsConfiguration.setGlobal(DocsConfiguration.builder().traversalLimits(limits).descriptorCacheSize(16).build());
+    extract("{\"items\":[{\"id\":1}],\"total\":1}", List.of());
+
+    // when
+    var descriptors = extract(longList, List.of());
+
+    // then
+    assertThat(descriptors).containsExactlyElementsOf(uncached);
+  }
+
+  /**
+   * Streamed, walked as a tree, split over the parallel executor, and served from the cache for an identical body.
+   */
+  private Map<String, List<Descriptor>> extractions(String body, List<FieldDescriptor> customFields, DocsConfiguration.Builder builder)
+    throws IOException {
+    DocsConfiguration.setGlobal(builder.descriptorCacheSize(0).build());
+    var streamed = extract(body, customFields);
+
+    var tree = TreeFieldExtractor.extract(OBJECT_MAPPER.readTree(body), DocsConfiguration.global(), CustomFieldIndex.of(customFields));
+
+    DocsConfiguration.setGlobal(builder.parallelThreshold(1).parallelism(2).build());
+    var parallel = extract(body, customFields);
+
+    DocsConfiguration.setGlobal(builder.parallelThreshold(0).descriptorCacheSize(16).build());
+    var filled = extract(body, customFields);
+    var cached = extract(body, customFields);
+
+    return Map.of(
+      "streamed", streamed,
+      "tree", tree.stream().map(Descriptor::of).toList(),
+      "parallel", parallel,
+      "filled", filled,
+      "cached", cached
+    );
+  }
+
+  private static List<Descriptor> extract(String body, List<FieldDescriptor> customFields) throws IOException {
+    var response = new MockHttpServletResponse();
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.getOutputStream().write(body.getBytes(UTF_8));
+
+    var fields = DocsGenerateUtil.responseFields(
+      response,
+      customFields,
+      JsonEngine.defaults(),
+      new PrettyBody(0, ExampleLimits.none()),
+      new DocumentRecorder()
+    );
+
+    return fields.subList(customFields.size(), fields.size()).stream().map(Descriptor::of).toList();
+  }
+
+  /**
+   * The recursive extraction of 1.0.4: one descriptor per scalar, per empty array and per non-object array element,
+   * custom paths matched as the trie matches them. Descriptions follow {@link DescriptionStrategy#samples()}.
+   */
+  private static List<Descriptor> recursive(String body, List<FieldDescriptor> customFields) throws IOException {
+    var descriptors = new ArrayList<Descriptor>();
+    object(OBJECT_MAPPER.readTree(body), "", descriptors);
+
+    return descriptors.stream().filter(descriptor -> !isCovered(descriptor.path(), customFields)).toList();
+  }
+
+  private static void object(JsonNode node, String path, List<Descriptor> descriptors) {
+    node.fields().forEachRemaining(field -> {
+      var child = path.isEmpty() ? field.getKey() : path + "." + field.getKey();
+      var value = field.getValue();
+
+      switch (value.getNodeType()) {
+        case OBJECT -> object(value, child, descriptors);
+        case ARRAY -> array(value, child, descriptors);
+        default -> descriptors.add(field(child, value));
+      }
+    });
+  }
+
+  private static void array(JsonNode node, String path, List<Descriptor> descriptors) {
+    if (node.isEmpty()) {
+      descriptors.add(field(path, node));
+      return;
+    }
+
+    node.elements().forEachRemaining(element -> {
+      if (element.isObject()) {
+        object(element, path + "[]", descriptors);
+      } else {
+        descriptors.add(field(path, node));
+      }
+    });
+  }
+
+  private static Descriptor field(String path, JsonNode node) {
+    var text = node.asText();
+    var type = DocsGenerateUtil.fieldType(node.getNodeType());
+    var description = text.isBlank() || node.getNodeType() == JsonNodeType.NULL ? type.toString() : text;
+
+    return new Descriptor(path, type.name(), text.isBlank(), description, false);
+  }
+
+  private static boolean isCovered(String path, List<FieldDescriptor> customFields) {
+    return customFields.stream().anyMatch(customField -> {
+      var custom = customField.getPath();
+
+      if (customField instanceof SubsectionDescriptor) {
+        return path.equals(custom) || path.startsWith(custom + ".") || path.startsWith(custom + "[]");
+      }
+
+      if (custom.endsWith(".*")) {
+        var prefix = custom.substring(0, custom.length() - 2);
+        return path.startsWith(prefix + ".") || path.startsWith(prefix + "[]");
+      }
+
+      var pattern = Pattern.quote(custom).replace("*", "\\E[^.\\[\\]]+\\Q");
+      return path.matches(pattern);
+    });
+  }
+
+  private record Descriptor(String path, String type, boolean optional, String description, boolean subsection) {
+    static Descriptor of(FieldDescriptor descriptor) {
+      var type = descriptor.getType() instanceof JsonNodeType nodeType ? DocsGenerateUtil.fieldType(nodeType) : (JsonFieldType) descriptor.getType();
+
+      return new Descriptor(
+        descriptor.getPath(),
+        type.name(),
+        descriptor.isOptional(),
+        String.valueOf(descriptor.getDescription()),
+        descriptor instanceof SubsectionDescriptor
+      );
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package io.github.hejow.restdocs.generator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.restdocs.ManualRestDocumentation;
+import org.springframework.restdocs.RestDocumentationContextProvider;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.filter.CharacterEncodingFilter;
+
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.documentationConfiguration;
+import static org.springframework.restdocs.mockmvc.RestDocumentationRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Documents bodies through REST Docs, whose payload validation fails on any field left undocumented.
+ */
+class PayloadValidationTest {
+  private static final String HETEROGENEOUS_LIST = """
+    {"items":[{"id":1},{"id":2},{"id":3,"name":"c"},{"id":"4","tags":[{"code":"x"}]}],"total":4}
+    """;
+
+  private final DocsConfiguration configuration = DocsConfiguration.global();
+
+  @TempDir
+  private Path outputDirectory;
+
+  @AfterEach
+  void tearDown() {
+    DocsConfiguration.setGlobal(configuration);
+  }
+
+  @Test
+  void firstSampleOfHeterogeneousList() throws Exception {
+    // given
+    DocsConfiguration.setGlobal(configuration.toBuilder().arraySampling(ArraySampling.first(2)).build());
+
+    // when
+    document("firstSampleOfHeterogeneousList", HETEROGENEOUS_LIST);
+
+    // then
+    assertThat(outputDirectory.resolve("firstSampleOfHeterogeneousList").resolve("resource.json")).content()
+      .contains("\"path\" : \"items[]\"");
+  }
+
+  @Test
+  void randomSampleOfHeterogeneousList() throws Exception {
+    // given
+    DocsConfiguration.setGlobal(configuration.toBuilder().arraySampling(ArraySampling.random(1, 7L)).build());
+
+    // when
+    document("randomSampleOfHeterogeneousList", HETEROGENEOUS_LIST);
+
+    // then
+    assertThat(outputDirectory.resolve("randomSampleOfHeterogeneousList").resolve("resource.json")).isNotEmptyFile();
+  }
+
+  @Test
+  void cachedSampleOfHeterogeneousList() throws Exception {
+    // given
+    DocsConfiguration.setGlobal(configuration.toBuilder().arraySampling(ArraySampling.first(2)).descriptorCacheSize(16).build());
+    document("cachedSampleOfHeterogeneousList-1", "{\"items\":[{\"id\":1},{\"id\":2}],\"total\":2}");
+
+    // when
+    document("cachedSampleOfHeterogeneousList-2", HETEROGENEOUS_LIST);
+
+    // then
+    assertThat(outputDirectory.resolve("cachedSampleOfHeterogeneousList-2").resolve("resource.json")).content()
+      .contains("\"path\" : \"items[]\"");
+  }
+
+  @Test
+  void bodyPastTheTraversalLimits() throws Exception {
+    // given
+    var limits = TraversalLimits.builder().maxDepth(3).maxFields(4).build();
+    DocsConfiguration.setGlobal(configuration.toBuilder().traversalLimits(limits).build());
+    var body = """
+      {"user":{"profile":{"address":{"city":"Seoul"}},"roles":[{"name":"admin","scopes":[{"id":1}]}]},
+       "items":[{"id":1},{"id":2,"detail":{"code":"x"}},{"id":3}],"total":3,"page":{"next":null,"size":10}}
+      """;
+
+    // when
+    document("bodyPastTheTraversalLimits", body);
+
+    // then
+    assertThat(outputDirectory.resolve("bodyPastTheTraversalLimits").resolve("resource.json")).content()
+      .contains("\"path\" : \"user.profile.address\"", "\"path\" : \"items\"", "\"path\" : \"page\"");
+  }
+
+  @Test
+  void storedSnippetsOfHeterogeneousList() throws Exception {
+    // given
+    DocsConfiguration.setGlobal(configuration.toBuilder().snippetStore(true).build());
+
+    // when
+    document("storedSnippetsOfHeterogeneousList", HETEROGENEOUS_LIST);
+    SnippetStore.flushAll();
+
+    // then
+    assertThat(outputDirectory.resolve("storedSnippetsOfHeterogeneousList")).doesNotExist();
+    assertThat(outputDirectory.resolve(SnippetStore.FILE_PREFIX + SnippetStore.RUN + SnippetStore.FILE_SUFFIX)).content()
+      .contains("{\"operation\":\"storedSnippetsOfHeterogeneousList\",\"snippet\":\"resource.json\",\"content\":{")
+      .contains("\"path\":\"items[].id\"")
+      .contains("\"snippet\":\"http-request.adoc\"");
+  }
+
+  @Test
+  void disabledDocumentation() throws Exception {
+    // given
+    DocsConfiguration.setGlobal(configuration.toBuilder().enabled(false).build());
+
+    // when
+    document("disabledDocumentation", HETEROGENEOUS_LIST);
+
+    // then
+    assertThat(outputDirectory.resolve("disabledDocumentation")).doesNotExist();
+  }
+
+  /**
+   * Fails with a {@code SnippetException} when the generated descriptors leave a field of {@code body} undocumented.
+   */
+  private void document(String identifier, String body) throws Exception {
+    var result = mockMvc(identifier).perform(post("/echo").contentType(MediaType.APPLICATION_JSON).content(body))
+      .andExpect(status().isOk());
+
+    result.andDo(
+      Document.builder()
+        .identifier(identifier)
+        .tag(() -> "Validation")
+        .summary(identifier)
+        .result(result)
+        .buildAndGenerate()
+    );
+  }
+
+  private MockMvc mockMvc(String testMethodName) {
+    RestDocumentationContextProvider restDocumentation = () -> {
+      var documentation = new ManualRestDocumentation(outputDirectory.toString());
+      documentation.beforeTest(PayloadValidationTest.class, testMethodName);
+      return documentation.beforeOperation();
+    };
+
+    return MockMvcBuilders
+      .standaloneSetup(new EchoController())
+      .apply(documentationConfiguration(restDocumentation))
+      .addFilter(new CharacterEncodingFilter(UTF_8.name(), true))
+      .build();
+  }
+
+  @RestController
+  public static class EchoController {
+    @PostMapping(value = "/echo", produces = MediaType.APPLICATION_JSON_VALUE)
+    public String echo(@RequestBody String body) {
+      return body;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package io.github.hejow.restdocs.gradle
+
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.workers.WorkAction
+import org.gradle.workers.WorkParameters
+import java.io.File
+import java.io.OutputStream
+import java.util.zip.Deflater
+import java.util.zip.GZIPOutputStream
+
+/**
+ * Writes a `.gz` sibling for each file of one batch, so a static host serves them without compressing on every request.
+ * Files are compressed once at the best level, the gzip header carries no timestamp so outputs stay reproducible.
+ */
+abstract class CompressFiles : WorkAction<CompressFiles.Parameters> {
+    interface Parameters : WorkParameters {
+        val files: ConfigurableFileCollection
+    }
+
+    override fun execute() {
+        parameters.files.forEach { file ->
+            File(file.path + GZIP_SUFFIX).outputStream().use { output ->
+                BestCompression(output).use { file.inputStream().copyTo(it) }
+            }
+        }
+    }
+
+    private class BestCompression(output: OutputStream) : GZIPOutputStream(output, BUFFER_SIZE) {
+        init {
+            def.setLevel(Deflater.BEST_COMPRESSION)
+        }
+    }
+
+    companion object {
+        const val GZIP_SUFFIX = ".gz"
+
+        private const val BUFFER_SIZE = 64 * 1024
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.hejow.restdocs.gradle
+
+import org.gradle.api.Action
+import org.gradle.api.Task
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.FileSystemOperations
+import org.gradle.api.provider.SetProperty
+import javax.inject.Inject
+
+/**
+ * Deletes the files a previous test run left in the snippets directory, so `easyRestdocs` only reads those of the next run.
+ */
+internal abstract class DeleteRunFiles @Inject constructor(private val fileSystem: FileSystemOperations) : Action<Task> {
+    abstract val directory: DirectoryProperty
+
+    abstract val patterns: SetProperty<String>
+
+    override fun execute(task: Task) {
+        fileSystem.delete { spec -> spec.delete(directory.asFileTree.matching { it.include(patterns.get()) }) }
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.hejow.restdocs.gradle
+
+import org.gradle.api.file.Directory
+import org.gradle.api.provider.Provider
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.process.CommandLineArgumentProvider
+
+/**
+ * Points the test JVMs at the report directory, which is tracked by its path relative to the project
+ * so the absolute path of the checkout stays out of the build cache key.
+ */
+internal class DocsReport(@get:OutputDirectory val directory: Provider<Directory>) : CommandLineArgumentProvider {
+    override fun asArguments() = listOf("-D${EasyRestdocsPlugin.REPORT_PROPERTY}=${directory.get().asFile.absolutePath}")
+}
@@ -0,0 +1,115 @@
+package io.github.hejow.restdocs.gradle
+
+import org.gradle.api.file.FileTreeElement
+import org.gradle.api.specs.Spec
+import java.io.DataInputStream
+import java.io.File
+
+/**
+ * Keeps the test classes that document, found in their constant pool without loading them:
+ *
+ * - classes referencing `Document` or annotated with `@EasyRestDocsTest`, or with an annotation of the same directory meta-annotated with it
+ * - their subclasses, since the annotation is inherited and helpers calling `Document` often live in a base class
+ * - the outer classes of documenting `@Nested` classes, which JUnit only runs through them
+ *
+ * Superclasses are followed within the test classes directories of `docsTest` only, not into jars such as test fixtures.
+ * Tag those tests and set `docsTestTag` instead.
+ */
+internal class DocumentedClasses : Spec<FileTreeElement> {
+    // documented class names per classes directory, built on first use and never stored in the configuration cache
+    @Transient
+    private var documented: MutableMap<File, Set<String>>? = null
+
+    override fun isSatisfiedBy(element: FileTreeElement): Boolean {
+        if (element.isDirectory || !element.name.endsWith(CLASS_SUFFIX)) {
+            return true
+        }
+
+        val segments = element.relativePath.segments.size
+        val root = generateSequence(element.file) { it.parentFile }.elementAt(segments)
+        return element.relativePath.pathString.removeSuffix(CLASS_SUFFIX) in documented(root)
+    }
+
+    @Synchronized
+    private fun documented(root: File): Set<String> {
+        val directories = documented ?: HashMap<File, Set<String>>().also { documented = it }
+        return directories.getOrPut(root) { scan(root) }
+    }
+
+    private fun scan(root: File): Set<String> {
+        val classes = root.walkTopDown()
+            .filter { it.isFile && it.name.endsWith(CLASS_SUFFIX) }
+            .mapNotNull { ClassFile.read(it) }
+            .associateBy { it.name }
+
+        val markers = classes.values.filter { it.isAnnotation && it.referencesAny(DIRECT_REFERENCES) }
+            .map { "L${it.name};" }
+        val direct = classes.values.filter { it.referencesAny(DIRECT_REFERENCES + markers) }.mapTo(HashSet()) { it.name }
+
+        val documented = classes.keys.filterTo(HashSet()) { name ->
+            generateSequence(classes[name]) { classes[it.superName] }.any { it.name in direct }
+        }
+
+        return documented + documented.flatMap { name -> name.indices.filter { name[it] == '$' }.map { name.substring(0, it) } }
+    }
+
+    /**
+     * Name, superclass, access flags and UTF-8 constants of a class file, the rest of the constant pool is skipped.
+     */
+    private class ClassFile(val name: String, val superName: String?, val access: Int, val strings: Set<String>) {
+        val isAnnotation get() = access and ACC_ANNOTATION != 0
+
+        fun referencesAny(references: List<String>) = strings.any { string -> references.any { string.contains(it) } }
+
+        companion object {
+            fun read(file: File): ClassFile? = DataInputStream(file.inputStream().buffered()).use { input ->
+                if (input.readInt() != MAGIC) {
+                    return null
+                }
+                input.skipBytes(4)
+
+                val count = input.readUnsignedShort()
+                val strings = arrayOfNulls<String>(count)
+                val classes = IntArray(count)
+
+                var index = 1
+                while (index < count) {
+                    when (val tag = input.readUnsignedByte()) {
+                        UTF8 -> strings[index] = input.readUTF()
+                        CLASS -> classes[index] = input.readUnsignedShort()
+                        LONG, DOUBLE -> input.skipBytes(8).also { index++ }
+                        else -> input.skipBytes(CONSTANT_SIZES[tag] ?: error("Unknown constant $tag in $file"))
+                    }
+                    index++
+                }
+
+                val access = input.readUnsignedShort()
+                val name = strings[classes[input.readUnsignedShort()]] ?: return null
+                val superIndex = input.readUnsignedShort()
+                val superName = if (superIndex == 0) null else strings[classes[superIndex]]
+
+                ClassFile(name, superName, access, strings.filterNotNullTo(HashSet()))
+            }
+        }
+    }
+
+    companion object {
+        private const val CLASS_SUFFIX = ".class"
+        private const val MAGIC = 0xCAFEBABE.toInt()
+        private const val ACC_ANNOTATION = 0x2000
+        private const val UTF8 = 1
+        private const val CLASS = 7
+        private const val LONG = 5
+        private const val DOUBLE = 6
+
+        // bytes taken by the other constants, by tag
+        private val CONSTANT_SIZES = mapOf(3 to 4, 4 to 4, 8 to 2, 9 to 4, 10 to 4, 11 to 4, 12 to 4, 15 to 3, 16 to 2, 17 to 4, 18 to 4, 19 to 2, 20 to 2)
+
+        // internal names as written in the constant pool of any class calling Document or Document.Builder,
+        // or annotated with @EasyRestDocsTest
+        private val DIRECT_REFERENCES = listOf(
+            "io/github/hejow/restdocs/generator/Document",
+            "io/github/hejow/restdocs/generator/EasyRestDocsTest",
+        )
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.hejow.restdocs.gradle
+
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+
+/**
+ * `easyRestdocs { ... }` block, every value is read lazily by [EasyRestdocsTask].
+ */
+abstract class EasyRestdocsExtension {
+    abstract val servers: ListProperty<String>
+
+    abstract val title: Property<String>
+
+    abstract val apiDescription: Property<String>
+
+    abstract val apiVersion: Property<String>
+
+    abstract val outputFileNamePrefix: Property<String>
+
+    /**
+     * Directory REST Docs writes snippets to, `build/generated-snippets` by default.
+     */
+    abstract val snippetsDirectory: DirectoryProperty
+
+    /**
+     * Directory the spec and Swagger UI are generated in, `build/easy-restdocs` by default.
+     */
+    abstract val outputDirectory: DirectoryProperty
+
+    /**
+     * Also writes one spec per tag, Swagger UI then only loads the spec of the selected tag. `false` by default.
+     */
+    abstract val shardByTag: Property<Boolean>
+
+    /**
+     * Writes the specs minified, with precompressed `.gz` siblings for them and the Swagger UI assets. `false` by default.
+     */
+    abstract val precompressed: Property<Boolean>
+
+    /**
+     * Batches of snippets parsed in parallel, `--max-workers` by default. Gradle never runs more than `--max-workers` at once.
+     */
+    abstract val parallelism: Property<Int>
+
+    /**
+     * Source set whose tests `docsTest` runs, `test` by default.
+     */
+    abstract val docsTestSourceSet: Property<String>
+
+    /**
+     * JUnit tag of documentation tests. When absent, `docsTest` runs the classes that reference `Document` or carry
+     * `@EasyRestDocsTest`, their subclasses and the outer classes of such `@Nested` classes. Superclasses coming from
+     * jars, such as test fixtures, aren't followed, so set a tag for those tests.
+     */
+    abstract val docsTestTag: Property<String>
+
+    /**
+     * Test JVMs `docsTest` forks in parallel, 1 by default.
+     */
+    abstract val docsTestForks: Property<Int>
+
+    /**
+     * Tests run concurrently in each `docsTest` JVM through JUnit parallel execution, 1 (sequential) by default.
+     */
+    abstract val docsTestParallelism: Property<Int>
+}
@@ -2,20 +2,113 @@ package io.github.hejow.restdocs.gradle
 
 import org.gradle.api.Plugin
 import org.gradle.api.Project
+import org.gradle.api.tasks.SourceSet
+import org.gradle.api.tasks.SourceSetContainer
+import org.gradle.api.tasks.testing.Test
 
 open class EasyRestdocsPlugin : Plugin<Project> {
-    private fun <T : EasyRestdocsTask> T.applyConfiguration(): T {
-        dependsOn("check")
-        group = "documentation"
-        description = "generate swaggerUI from rest-docs snippets"
-        return this
+    companion object {
+        const val ENABLED_PROPERTY = "easy-restdocs.enabled"
+        const val REPORT_PROPERTY = "easy-restdocs.report"
+        const val EXTENSION_NAME = "easyRestdocs"
+        const val TASK_NAME = "easyRestdocs"
+        const val DOCS_TEST_TASK_NAME = "docsTest"
+        const val SWAGGER_UI_CONFIGURATION = "easyRestdocsSwaggerUi"
+        const val SWAGGER_UI_WEBJAR = "org.webjars:swagger-ui:4.1.3"
     }
 
     override fun apply(project: Project) {
         with(project) {
-            afterEvaluate {
-                tasks.create("easyRestdocs", EasyRestdocsTask::class.java).applyConfiguration()
+            // ./gradlew test -Peasy-restdocs.enabled=false skips documentation in the tests
+            findProperty(ENABLED_PROPERTY)?.let { enabled ->
+                tasks.withType(Test::class.java).configureEach {
+                    if (it.name != DOCS_TEST_TASK_NAME) {
+                        it.systemProperty(ENABLED_PROPERTY, enabled.toString())
+                    }
+                }
+            }
+
+            val extension = extensions.create(EXTENSION_NAME, EasyRestdocsExtension::class.java).apply {
+                snippetsDirectory.convention(layout.buildDirectory.dir("generated-snippets"))
+                outputDirectory.convention(layout.buildDirectory.dir("easy-restdocs"))
+                parallelism.convention(gradle.startParameter.maxWorkerCount)
+                shardByTag.convention(false)
+                precompressed.convention(false)
+                docsTestSourceSet.convention(SourceSet.TEST_SOURCE_SET_NAME)
+                docsTestForks.convention(1)
+                docsTestParallelism.convention(1)
+            }
+
+            // override with dependencies { easyRestdocsSwaggerUi 'org.webjars:swagger-ui:<version>' }
+            val swaggerUi = configurations.create(SWAGGER_UI_CONFIGURATION) { configuration ->
+                configuration.isCanBeConsumed = false
+                configuration.isTransitive = false
+                configuration.defaultDependencies { it.add(dependencies.create(SWAGGER_UI_WEBJAR)) }
+            }
+
+            tasks.register(TASK_NAME, EasyRestdocsTask::class.java) { task ->
+                task.group = "documentation"
+                task.description = "generate swaggerUI from rest-docs snippets"
+
+                task.servers.convention(extension.servers)
+                task.title.convention(extension.title)
+                task.apiDescription.convention(extension.apiDescription)
+                task.apiVersion.convention(extension.apiVersion)
+                task.outputFileNamePrefix.convention(extension.outputFileNamePrefix)
+                task.snippetsDirectory.convention(extension.snippetsDirectory)
+                task.outputDirectory.convention(extension.outputDirectory)
+                task.stateDirectory.convention(layout.buildDirectory.dir("easy-restdocs-state"))
+                task.swaggerUi.from(swaggerUi)
+                task.parallelism.convention(extension.parallelism)
+                task.shardByTag.convention(extension.shardByTag)
+                task.precompressed.convention(extension.precompressed)
+            }
+
+            pluginManager.withPlugin("java") {
+                val docsTest = registerDocsTest(extension)
+                tasks.named(TASK_NAME) { it.dependsOn(docsTest) }
             }
         }
     }
+
+    /**
+     * Runs only the documentation tests, instead of `check` and every other verification task.
+     */
+    private fun Project.registerDocsTest(extension: EasyRestdocsExtension) =
+        tasks.register(DOCS_TEST_TASK_NAME, Test::class.java) { task ->
+            val sourceSet = extensions.getByType(SourceSetContainer::class.java).getByName(extension.docsTestSourceSet.get())
+
+            task.group = "documentation"
+            task.description = "run the tests documented with easy-restdocs"
+            task.testClassesDirs = sourceSet.output.classesDirs
+            task.classpath = sourceSet.runtimeClasspath
+            task.maxParallelForks = extension.docsTestForks.get()
+            task.systemProperty(ENABLED_PROPERTY, "true")
+            // loads SnippetFlushExtension, so failed background writes fail the class that documented them
+            task.systemProperty("junit.jupiter.extensions.autodetection.enabled", "true")
+            task.outputs.dir(extension.snippetsDirectory)
+            task.doFirst(objects.newInstance(DeleteRunFiles::class.java).apply {
+                directory.set(extension.snippetsDirectory)
+                patterns.addAll(SnippetStores.PATTERN, EndpointSchemas.PATTERN)
+            })
+
+            // every test JVM writes the cost of its documented calls to reports/easy-restdocs/
+            task.jvmArgumentProviders.add(DocsReport(layout.buildDirectory.dir("reports/easy-restdocs")))
+
+            val tag = extension.docsTestTag.orNull
+            task.useJUnitPlatform { options ->
+                tag?.let { options.includeTags(it) }
+            }
+            if (tag == null) {
+                task.include(DocumentedClasses())
+            }
+
+            val parallelism = extension.docsTestParallelism.get()
+            if (parallelism > 1) {
+                task.systemProperty("junit.jupiter.execution.parallel.enabled", "true")
+                task.systemProperty("junit.jupiter.execution.parallel.mode.default", "concurrent")
+                task.systemProperty("junit.jupiter.execution.parallel.config.strategy", "fixed")
+                task.systemProperty("junit.jupiter.execution.parallel.config.fixed.parallelism", parallelism.toString())
+            }
+        }
 }
@@ -1,33 +1,379 @@
 package io.github.hejow.restdocs.gradle
 
+import com.fasterxml.jackson.databind.ObjectMapper
 import org.gradle.api.DefaultTask
+import org.gradle.api.file.ArchiveOperations
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.FileSystemOperations
+import org.gradle.api.file.FileType
+import org.gradle.api.file.RelativePath
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.CacheableTask
+import org.gradle.api.tasks.Classpath
+import org.gradle.api.tasks.IgnoreEmptyDirectories
 import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.InputFiles
+import org.gradle.api.tasks.Internal
+import org.gradle.api.tasks.LocalState
 import org.gradle.api.tasks.Optional
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
 import org.gradle.api.tasks.TaskAction
+import org.gradle.work.Incremental
+import org.gradle.work.InputChanges
+import org.gradle.workers.WorkerExecutor
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import javax.inject.Inject
 
-open class EasyRestdocsTask : DefaultTask() {
-    @Input
-    @Optional
-    var servers: List<String> = listOf()
+/**
+ * Generates the spec and Swagger UI out of the snippets of the documented tests. <br>
+ * Snippets are tracked by their path relative to [snippetsDirectory], so the task is up to date
+ * and served from the build cache whenever no snippet changed, wherever the project is checked out.
+ * Only lazy properties are read, which keeps the task compatible with the configuration cache.
+ *
+ * Snippets are split into [parallelism] batches parsed by Gradle workers, so at most `--max-workers` run at once.
+ * The sorted batches are then merged into the spec by [SpecWriter] in a single streaming pass.
+ *
+ * Converted operations are kept in [stateDirectory] along with a [SnippetManifest] of content hashes.
+ * A rerun only parses the snippets whose hash changed, drops the removed ones and rewrites the spec from the store.
+ *
+ * With [shardByTag] every tag also gets its own spec, written in parallel by [WriteTagShards],
+ * and Swagger UI only loads the spec of the selected tag.
+ *
+ * With [precompressed] the specs are minified and every text output gets a `.gz` sibling, compressed in parallel by [CompressFiles].
+ * Outputs whose hash didn't change keep their `.gz`.
+ *
+ * Snippets appended to single file stores by the generator are read from the same directory, see [SnippetStores].
+ * A stored snippet replaces the `resource.json` file of the same operation.
+ *
+ * Schemas the generator accumulated per endpoint replace the ones of single calls, see [EndpointSchemas].
+ */
+@CacheableTask
+abstract class EasyRestdocsTask : DefaultTask() {
+    @get:Input
+    @get:Optional
+    abstract val servers: ListProperty<String>
 
-    @Input
-    @Optional
-    var title: String? = null
+    @get:Input
+    @get:Optional
+    abstract val title: Property<String>
 
-    @Input
-    @Optional
-    var apiDescription: String? = null
+    @get:Input
+    @get:Optional
+    abstract val apiDescription: Property<String>
 
-    @Input
-    @Optional
-    var apiVersion: String? = null
+    @get:Input
+    @get:Optional
+    abstract val apiVersion: Property<String>
 
-    @Input
-    @Optional
-    var outputFileNamePrefix: String? = null
+    @get:Input
+    @get:Optional
+    abstract val outputFileNamePrefix: Property<String>
+
+    /**
+     * Writes one spec per tag under `tags/` as well, listed by `tags/index.json`.
+     */
+    @get:Input
+    abstract val shardByTag: Property<Boolean>
+
+    /**
+     * Writes the specs minified, with a `.gz` sibling for them and every Swagger UI asset.
+     */
+    @get:Input
+    abstract val precompressed: Property<Boolean>
+
+    @get:Incremental
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    @get:IgnoreEmptyDirectories
+    abstract val snippetsDirectory: DirectoryProperty
+
+    /**
+     * The `swagger-ui` webjar.
+     */
+    @get:Classpath
+    abstract val swaggerUi: ConfigurableFileCollection
+
+    /**
+     * Batches of snippets parsed in parallel, it doesn't change the generated files.
+     */
+    @get:Internal
+    abstract val parallelism: Property<Int>
+
+    @get:OutputDirectory
+    abstract val outputDirectory: DirectoryProperty
+
+    /**
+     * Manifest of snippet hashes and the operations converted from them, reused by the next run.
+     */
+    @get:LocalState
+    abstract val stateDirectory: DirectoryProperty
+
+    @get:Inject
+    abstract val workerExecutor: WorkerExecutor
+
+    @get:Inject
+    abstract val archiveOperations: ArchiveOperations
+
+    @get:Inject
+    abstract val fileSystemOperations: FileSystemOperations
 
     @TaskAction
-    fun generate() {
-        print(this.toString())
+    fun generate(inputChanges: InputChanges) {
+        val mapper = ObjectMapper()
+        val root = snippetsDirectory.get().asFile
+        val output = outputDirectory.get().asFile
+        val state = stateDirectory.get().asFile
+        val store = File(state, OPERATION_STORE)
+
+        // a non-incremental run may follow a change of the plugin or of the task inputs, nothing of the previous run is reused
+        if (!inputChanges.isIncremental) {
+            fileSystemOperations.delete { it.delete(output, state) }
+        }
+        fileSystemOperations.delete { it.delete(temporaryDir) }
+
+        val previous = if (inputChanges.isIncremental && store.isFile) SnippetManifest.read(mapper, File(state, MANIFEST)) else SnippetManifest.EMPTY
+        val stored = SnippetStores.index(mapper, snippetsDirectory.asFileTree.matching { it.include(SnippetStores.PATTERN) }.files.toList())
+        val snippets = snippetsDirectory.asFileTree.matching { it.include("**/$RESOURCE_SNIPPET") }.files
+            .associateBy { SnippetManifest.key(root, it) }
+            .filterKeys { it !in stored }
+
+        val hashes = hashes(snippets, previous, inputChanges) + stored.mapValues { it.value.hash }
+        val changed = hashes.keys.filterTo(HashSet()) { hashes[it] != previous.hashes[it] }
+        val removed = previous.hashes.keys - hashes.keys
+
+        val fragments = parse(snippets.filterKeys { it in changed }.values.sorted()) + parseStored(stored.filterKeys { it in changed })
+        val merged = File(temporaryDir, OPERATION_STORE)
+        Fragments.merge(mapper, store.takeIf { previous !== SnippetManifest.EMPTY }, changed + removed, fragments, merged)
+        state.mkdirs()
+        Files.move(merged.toPath(), store.toPath(), StandardCopyOption.REPLACE_EXISTING)
+
+        val schemaFiles = snippetsDirectory.asFileTree.matching { it.include(EndpointSchemas.PATTERN) }.files
+        val schemas = EndpointSchemas.read(mapper, schemaFiles)
+
+        val spec = File(output, "${outputFileNamePrefix.getOrElse(DEFAULT_SPEC_NAME)}.json")
+        val tags = SpecWriter(mapper, info(), !precompressed.get(), schemas).write(listOf(store), spec)
+        val shards = if (shardByTag.get()) shard(mapper, store, tags, output, schemaFiles) else emptyMap()
+
+        val swaggerUiKey = (swaggerUi.files.map { it.name } + spec.name + shards.values).joinToString()
+        if (previous.swaggerUi != swaggerUiKey || !File(output, SWAGGER_UI_DIRECTORY).isDirectory) {
+            swaggerUi(mapper, output, spec.name, shards)
+        }
+
+        val compressed = if (precompressed.get()) precompress(output, previous.compressed) else emptyMap()
+
+        SnippetManifest(hashes, swaggerUiKey, compressed).write(mapper, File(state, MANIFEST))
+        logger.info("easyRestdocs: {} of {} snippets parsed, {} removed, spec written to {}", changed.size, hashes.size, removed.size, spec)
+    }
+
+    /**
+     * Only snippets Gradle reports as changed are hashed again, unless the previous run can't be trusted.
+     */
+    private fun hashes(snippets: Map<String, File>, previous: SnippetManifest, inputChanges: InputChanges): Map<String, String> {
+        val reported = if (inputChanges.isIncremental) {
+            inputChanges.getFileChanges(snippetsDirectory)
+                .filter { it.fileType == FileType.FILE }
+                .mapTo(HashSet()) { it.normalizedPath }
+        } else {
+            null
+        }
+
+        return snippets.mapValues { (key, file) ->
+            val known = previous.hashes[key]
+            if (known != null && reported != null && key !in reported) known else SnippetManifest.hash(file)
+        }
+    }
+
+    private fun parse(snippets: List<File>): List<File> {
+        if (snippets.isEmpty()) {
+            return emptyList()
+        }
+
+        val queue = workerExecutor.noIsolation()
+        val batches = parallelism.get().coerceIn(1, snippets.size)
+        val batchSize = (snippets.size + batches - 1) / batches
+
+        val fragments = snippets.chunked(batchSize).mapIndexed { index, batch ->
+            val fragment = File(temporaryDir, "fragment-$index.ndjson")
+            queue.submit(ParseSnippets::class.java) {
+                it.snippetsDirectory.set(snippetsDirectory)
+                it.snippets.from(batch)
+                it.fragment.set(fragment)
+            }
+            fragment
+        }
+
+        queue.await()
+        return fragments
+    }
+
+    /**
+     * Batches the lines of each store, every worker maps only the store of its batch.
+     */
+    private fun parseStored(snippets: Map<String, SnippetStores.StoredSnippet>): List<File> {
+        if (snippets.isEmpty()) {
+            return emptyList()
+        }
+
+        val queue = workerExecutor.noIsolation()
+        val batches = parallelism.get().coerceIn(1, snippets.size)
+        val batchSize = (snippets.size + batches - 1) / batches
+
+        val fragments = snippets.entries.groupBy { it.value.store }.flatMap { (store, lines) -> lines.chunked(batchSize).map { store to it } }
+            .mapIndexed { index, (store, batch) ->
+                val fragment = File(temporaryDir, "stored-$index.ndjson")
+                queue.submit(ParseStoredSnippets::class.java) {
+                    it.store.set(store)
+                    it.keys.set(batch.map { (key, _) -> key })
+                    it.starts.set(batch.map { (_, snippet) -> snippet.line.start })
+                    it.lengths.set(batch.map { (_, snippet) -> snippet.line.length })
+                    it.fragment.set(fragment)
+                }
+                fragment
+            }
+
+        queue.await()
+        return fragments
+    }
+
+    /**
+     * Splits [tags] into [parallelism] batches, each worker writes the specs of its batch in one pass over [store].
+     *
+     * @return file names of the specs by tag
+     */
+    private fun shard(mapper: ObjectMapper, store: File, tags: Set<String>, output: File, schemas: Set<File>): Map<String, String> {
+        val directory = File(output, TagShards.DIRECTORY)
+        fileSystemOperations.delete { it.delete(directory) }
+
+        val fileNames = TagShards.fileNames(tags)
+        TagShards.writeIndex(mapper, fileNames, directory)
+        if (fileNames.isEmpty()) {
+            return fileNames
+        }
+
+        val info = info()
+        val queue = workerExecutor.noIsolation()
+        val batches = parallelism.get().coerceIn(1, fileNames.size)
+        val batchSize = (fileNames.size + batches - 1) / batches
+
+        fileNames.entries.chunked(batchSize).forEach { batch ->
+            queue.submit(WriteTagShards::class.java) {
+                it.store.set(store)
+                it.tags.set(batch.map { (tag, _) -> tag })
+                it.fileNames.set(batch.map { (_, fileName) -> fileName })
+                it.directory.set(directory)
+                it.title.set(info.title)
+                it.apiDescription.set(info.description)
+                it.apiVersion.set(info.version)
+                it.servers.set(info.servers)
+                it.pretty.set(!precompressed.get())
+                it.schemas.from(schemas)
+            }
+        }
+
+        queue.await()
+        return fileNames
+    }
+
+    /**
+     * Compresses the text outputs whose hash changed or whose `.gz` is missing, and drops the `.gz` of removed outputs.
+     *
+     * @return hashes of the compressed outputs, keyed by their path in [output]
+     */
+    private fun precompress(output: File, previous: Map<String, String>): Map<String, String> {
+        output.walkTopDown()
+            .filter { it.isFile && it.name.endsWith(CompressFiles.GZIP_SUFFIX) && !File(it.path.removeSuffix(CompressFiles.GZIP_SUFFIX)).isFile }
+            .forEach { it.delete() }
+
+        val outputs = output.walkTopDown().filter { it.isFile && it.extension in COMPRESSED_EXTENSIONS }.associateBy { SnippetManifest.key(output, it) }
+        val hashes = outputs.mapValues { (_, file) -> SnippetManifest.hash(file) }
+        val changed = outputs.filter { (key, file) -> hashes[key] != previous[key] || !File(file.path + CompressFiles.GZIP_SUFFIX).isFile }.values
+        if (changed.isEmpty()) {
+            return hashes
+        }
+
+        val queue = workerExecutor.noIsolation()
+        val batches = parallelism.get().coerceIn(1, changed.size)
+
+        // dealt largest first, so the spec doesn't end up in the same batch as the biggest assets
+        changed.sortedByDescending { it.length() }.withIndex().groupBy({ it.index % batches }, { it.value }).values.forEach { batch ->
+            queue.submit(CompressFiles::class.java) { it.files.from(batch) }
+        }
+
+        queue.await()
+        logger.info("easyRestdocs: {} of {} outputs compressed", changed.size, outputs.size)
+        return hashes
+    }
+
+    private fun info() = SpecInfo(
+        title = title.getOrElse(DEFAULT_TITLE),
+        description = apiDescription.orNull,
+        version = apiVersion.getOrElse(DEFAULT_VERSION),
+        servers = servers.getOrElse(emptyList()),
+    )
+
+    /**
+     * Unpacks the webjar into `swagger-ui/` and points it at the generated spec, or lists the specs of each tag.
+     */
+    private fun swaggerUi(mapper: ObjectMapper, output: File, specName: String, shards: Map<String, String>) {
+        if (swaggerUi.isEmpty) {
+            return
+        }
+
+        val directory = File(output, SWAGGER_UI_DIRECTORY)
+        fileSystemOperations.copy { copy ->
+            swaggerUi.forEach { copy.from(archiveOperations.zipTree(it)) }
+            copy.include("$WEBJAR_ROOT/**")
+            copy.eachFile { file ->
+                file.relativePath = RelativePath(true, *file.relativePath.segments.drop(WEBJAR_ROOT_DEPTH).toTypedArray())
+            }
+            copy.includeEmptyDirs = false
+            copy.into(directory)
+        }
+
+        val specs = if (shards.isEmpty()) {
+            "url: ${mapper.writeValueAsString("../$specName")},"
+        } else {
+            val urls = mapper.createArrayNode()
+            shards.forEach { (tag, fileName) -> urls.addObject().put("url", "../${TagShards.DIRECTORY}/$fileName").put("name", tag) }
+            "urls: $urls,\n                \"urls.primaryName\": ${mapper.writeValueAsString(shards.keys.first())},"
+        }
+
+        File(directory, SWAGGER_INITIALIZER).writeText(
+            """
+            window.onload = function () {
+              window.ui = SwaggerUIBundle({
+                $specs
+                dom_id: "#swagger-ui",
+                deepLinking: true,
+                presets: [SwaggerUIBundle.presets.apis, SwaggerUIStandalonePreset],
+                plugins: [SwaggerUIBundle.plugins.DownloadUrl],
+                layout: "StandaloneLayout"
+              });
+            };
+            """.trimIndent()
+        )
+    }
+
+    companion object {
+        const val RESOURCE_SNIPPET = "resource.json"
+
+        private const val DEFAULT_SPEC_NAME = "openapi3"
+        private const val OPERATION_STORE = "operations.ndjson"
+        private const val MANIFEST = "manifest.json"
+        private const val DEFAULT_TITLE = "API documentation"
+        private const val DEFAULT_VERSION = "1.0.0"
+        private const val SWAGGER_UI_DIRECTORY = "swagger-ui"
+        private const val SWAGGER_INITIALIZER = "swagger-initializer.js"
+        private val COMPRESSED_EXTENSIONS = setOf("json", "js", "css", "html", "map")
+
+        // META-INF/resources/webjars/swagger-ui/<version>/
+        private const val WEBJAR_ROOT = "META-INF/resources/webjars/swagger-ui/*"
+        private const val WEBJAR_ROOT_DEPTH = 5
     }
 }
@@ -0,0 +1,108 @@
+package io.github.hejow.restdocs.gradle
+
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ArrayNode
+import java.io.File
+
+/**
+ * Reads the schemas the generator accumulates per endpoint with `accumulateSchemas(true)`, one file per test JVM:
+ *
+ * ```
+ * {"endpoints":[{"method":"GET","path":"/users/{id}","responses":{"200":{"observations":2,"fields":[
+ *   {"path":"data.name","seen":2,"types":["STRING"],"nullable":true,"optional":false}
+ * ]}}}]}
+ * ```
+ *
+ * The files of every JVM are folded the same way the generator folds calls, so forked test JVMs add up to one schema per endpoint.
+ * Files are visited by name, the description of a field comes from the earliest run that has one.
+ */
+internal object EndpointSchemas {
+    const val PATTERN = "easy-restdocs-schemas-*.json"
+
+    private const val VARIES = "VARIES"
+    private const val NULL = "NULL"
+
+    class Endpoint {
+        var request: Message? = null
+        val responses = HashMap<String, Message>()
+    }
+
+    /**
+     * The fields of every observed body of a request or a response.
+     */
+    class Message {
+        var observations = 0
+        val fields = LinkedHashMap<String, Field>()
+
+        fun add(node: JsonNode) {
+            observations += node.path("observations").asInt()
+            node.path("fields").forEach { field ->
+                fields.getOrPut(field.path("path").asText()) { Field() }.add(field)
+            }
+        }
+    }
+
+    class Field {
+        var seen = 0
+        val types = sortedSetOf<String>()
+        var nullable = false
+        var optional = false
+        var description: String? = null
+
+        fun add(node: JsonNode) {
+            seen += node.path("seen").asInt()
+            node.path("types").forEach { types.add(it.asText()) }
+            nullable = nullable || node.path("nullable").asBoolean()
+            optional = optional || node.path("optional").asBoolean()
+            description = description ?: node.get("description")?.asText()
+        }
+    }
+
+    fun key(method: String, path: String) = "${method.lowercase()} $path"
+
+    /**
+     * @return the endpoints of [files], keyed by [key]
+     */
+    fun read(mapper: ObjectMapper, files: Collection<File>): Map<String, Endpoint> {
+        val endpoints = HashMap<String, Endpoint>()
+
+        files.sortedBy { it.name }.forEach { file ->
+            mapper.readTree(file).path("endpoints").forEach { node ->
+                val endpoint = endpoints.getOrPut(key(node.path("method").asText(), node.path("path").asText())) { Endpoint() }
+
+                node.get("request")?.let { request -> (endpoint.request ?: Message().also { endpoint.request = it }).add(request) }
+                node.path("responses").fields().forEach { (status, response) ->
+                    endpoint.responses.getOrPut(status) { Message() }.add(response)
+                }
+            }
+        }
+
+        return endpoints
+    }
+
+    /**
+     * Field descriptors of [message] as `resource.json` lists them, ready for [SnippetConverter.schema]. <br>
+     * A field is optional when some bodies lacked it, when it was `null` in some of them or when a call documented it as optional.
+     * Fields seen with several types are [VARIES].
+     */
+    fun descriptors(mapper: ObjectMapper, message: Message): ArrayNode {
+        val descriptors = mapper.createArrayNode()
+
+        message.fields.forEach { (path, field) ->
+            descriptors.addObject().apply {
+                put("path", path)
+                when (field.types.size) {
+                    0 -> if (field.nullable) put("type", NULL)
+                    1 -> put("type", field.types.first())
+                    else -> put("type", VARIES)
+                }
+                put("optional", field.optional || field.nullable || field.seen < message.observations)
+                put("nullable", field.nullable)
+                field.description?.let { put("description", it) }
+            }
+        }
+
+        return descriptors
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.hejow.restdocs.gradle
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ObjectNode
+import java.io.BufferedReader
+import java.io.BufferedWriter
+import java.io.File
+import java.util.PriorityQueue
+
+/**
+ * Sorted operations exchanged between workers, the operation store and [SpecWriter], one JSON object per line.
+ */
+internal object Fragments {
+    private const val PATH = "path"
+    private const val METHOD = "method"
+    private const val SNIPPET = "snippet"
+    private const val OPERATION = "operation"
+
+    fun write(mapper: ObjectMapper, operations: List<SnippetOperation>, file: File) {
+        file.parentFile.mkdirs()
+        file.bufferedWriter().use { writer -> operations.forEach { write(mapper, it, writer) } }
+    }
+
+    /**
+     * Merges new fragments into the previous [store], leaving out the operations it holds for [excluded] snippets.
+     */
+    fun merge(mapper: ObjectMapper, store: File?, excluded: Set<String>, fragments: List<File>, file: File) {
+        file.parentFile.mkdirs()
+        file.bufferedWriter().use { writer ->
+            forEachSorted(mapper, listOfNotNull(store) + fragments) { operation, source ->
+                if (source != store || operation.snippet !in excluded) {
+                    write(mapper, operation, writer)
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the operations of sorted fragments in order, only the head of each fragment is read at a time.
+     */
+    fun forEachSorted(mapper: ObjectMapper, fragments: List<File>, action: (SnippetOperation, File) -> Unit) {
+        val readers = fragments.filter { it.isFile }.map { Reader(mapper, it) }
+
+        try {
+            val heads = PriorityQueue<Head>(compareBy { it.operation })
+            readers.forEach { reader -> reader.next()?.let { heads.add(Head(it, reader)) } }
+
+            while (heads.isNotEmpty()) {
+                val head = heads.poll()
+                action(head.operation, head.reader.file)
+                head.reader.next()?.let { heads.add(Head(it, head.reader)) }
+            }
+        } finally {
+            readers.forEach { it.close() }
+        }
+    }
+
+    private fun write(mapper: ObjectMapper, operation: SnippetOperation, writer: BufferedWriter) {
+        val line = mapper.createObjectNode()
+            .put(PATH, operation.path)
+            .put(METHOD, operation.method)
+            .put(SNIPPET, operation.snippet)
+            .set<ObjectNode>(OPERATION, operation.operation)
+
+        writer.write(mapper.writeValueAsString(line))
+        writer.newLine()
+    }
+
+    /**
+     * Reads a fragment one operation at a time.
+     */
+    private class Reader(private val mapper: ObjectMapper, val file: File) : AutoCloseable {
+        private val reader: BufferedReader = file.bufferedReader()
+
+        fun next(): SnippetOperation? {
+            val line = reader.readLine() ?: return null
+            val node = mapper.readTree(line)
+            val operation = node.get(OPERATION) as ObjectNode
+
+            return SnippetOperation(
+                node.get(PATH).asText(),
+                node.get(METHOD).asText(),
+                operation.path("operationId").asText(),
+                node.get(SNIPPET).asText(),
+                operation,
+            )
+        }
+
+        override fun close() = reader.close()
+    }
+
+    private class Head(val operation: SnippetOperation, val reader: Reader)
+}
@@ -0,0 +1,32 @@
+package io.github.hejow.restdocs.gradle
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.workers.WorkAction
+import org.gradle.workers.WorkParameters
+
+/**
+ * Converts one batch of `resource.json` snippets and writes them, sorted, as a fragment of one operation per line.
+ * Batches run in parallel on the workers of the build, [SpecWriter] merges the fragments afterwards.
+ */
+abstract class ParseSnippets : WorkAction<ParseSnippets.Parameters> {
+    interface Parameters : WorkParameters {
+        val snippetsDirectory: DirectoryProperty
+        val snippets: ConfigurableFileCollection
+        val fragment: RegularFileProperty
+    }
+
+    override fun execute() {
+        val mapper = ObjectMapper()
+        val converter = SnippetConverter(mapper)
+        val root = parameters.snippetsDirectory.get().asFile
+
+        val operations = parameters.snippets.files
+            .map { converter.convert(mapper.readTree(it), SnippetManifest.key(root, it)) }
+            .sorted()
+
+        Fragments.write(mapper, operations, parameters.fragment.get().asFile)
+    }
+}
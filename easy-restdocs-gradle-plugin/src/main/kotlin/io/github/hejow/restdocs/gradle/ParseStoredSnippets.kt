@@ -0,0 +1,38 @@
+package io.github.hejow.restdocs.gradle
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.provider.ListProperty
+import org.gradle.workers.WorkAction
+import org.gradle.workers.WorkParameters
+
+/**
+ * Converts one batch of `resource.json` lines of a single snippet store, the counterpart of [ParseSnippets].
+ * Lines are addressed by their offset and length in the store, see [SnippetStores.index].
+ */
+abstract class ParseStoredSnippets : WorkAction<ParseStoredSnippets.Parameters> {
+    interface Parameters : WorkParameters {
+        val store: RegularFileProperty
+        val keys: ListProperty<String>
+        val starts: ListProperty<Long>
+        val lengths: ListProperty<Int>
+        val fragment: RegularFileProperty
+    }
+
+    override fun execute() {
+        val mapper = ObjectMapper()
+        val converter = SnippetConverter(mapper)
+        val store = parameters.store.get().asFile
+        val keys = parameters.keys.get()
+        val starts = parameters.starts.get()
+        val lengths = parameters.lengths.get()
+
+        val lines = keys.indices.associateBy { SnippetStores.Line(starts[it], lengths[it]) }
+        val operations = ArrayList<SnippetOperation>(lines.size)
+        SnippetStores.read(mapper, store, lines.keys.toList()) { line, content ->
+            operations.add(converter.convert(content, keys[lines.getValue(line)]))
+        }
+
+        Fragments.write(mapper, operations.sorted(), parameters.fragment.get().asFile)
+    }
+}
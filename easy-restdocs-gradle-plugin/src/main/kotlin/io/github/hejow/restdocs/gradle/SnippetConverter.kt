@@ -0,0 +1,181 @@
+package io.github.hejow.restdocs.gradle
+
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ArrayNode
+import com.fasterxml.jackson.databind.node.ObjectNode
+
+/**
+ * Turns the `resource.json` snippet of one documented call into an OpenAPI operation. <br>
+ * Request and response schemas are built from the field descriptors, examples are kept as documented.
+ */
+internal class SnippetConverter(private val mapper: ObjectMapper) {
+    /**
+     * @param snippet path of the snippet relative to the snippets directory, it identifies the operation between runs
+     */
+    fun convert(resource: JsonNode, snippet: String): SnippetOperation {
+        val request = resource.path("request")
+        val response = resource.path("response")
+        val operationId = resource.path("operationId").asText()
+
+        val operation = mapper.createObjectNode()
+        operation.set<JsonNode>("tags", resource.path("tags").takeIf { it.isArray } ?: mapper.createArrayNode())
+        resource.textOrNull("summary")?.let { operation.put("summary", it) }
+        resource.textOrNull("description")?.let { operation.put("description", it) }
+        operation.put("operationId", operationId)
+
+        val parameters = operation.putArray("parameters")
+        parameters(request.path("pathParameters"), "path", parameters)
+        parameters(request.path("queryParameters"), "query", parameters)
+        parameters(request.path("requestParameters"), "query", parameters)
+        if (parameters.isEmpty) {
+            operation.remove("parameters")
+        }
+
+        body(request, "requestFields", operationId)?.let { operation.putObject("requestBody").set<JsonNode>("content", it) }
+
+        val status = response.path("status").asInt(DEFAULT_STATUS).toString()
+        val responseNode = operation.putObject("responses").putObject(status)
+        responseNode.put("description", status)
+        body(response, "responseFields", operationId)?.let { responseNode.set<JsonNode>("content", it) }
+
+        return SnippetOperation(request.path("path").asText(), request.path("method").asText().lowercase(), operationId, snippet, operation)
+    }
+
+    private fun parameters(descriptors: JsonNode, location: String, parameters: ArrayNode) {
+        descriptors.forEach { descriptor ->
+            parameters.addObject().apply {
+                put("name", descriptor.path("name").asText())
+                put("in", location)
+                put("required", location == "path" || !descriptor.path("optional").asBoolean())
+                descriptor.textOrNull("description")?.let { put("description", it) }
+                putObject("schema").put("type", parameterType(descriptor.path("type").asText()))
+            }
+        }
+    }
+
+    /**
+     * `content` of a request body or response, `null` when nothing was sent.
+     */
+    private fun body(message: JsonNode, fieldsName: String, operationId: String): ObjectNode? {
+        val contentType = message.textOrNull("contentType") ?: return null
+        val example = message.textOrNull("example")
+        val fields = message.path(fieldsName)
+
+        if (example == null && fields.isEmpty) {
+            return null
+        }
+
+        val media = mapper.createObjectNode()
+        media.putObject(contentType).apply {
+            set<JsonNode>("schema", schema(fields))
+            example?.let { putObject("examples").putObject(operationId).set<JsonNode>("value", example(contentType, it)) }
+        }
+        return media
+    }
+
+    private fun example(contentType: String, example: String): JsonNode =
+        if (contentType.contains("json")) {
+            runCatching { mapper.readTree(example) }.getOrNull() ?: mapper.nodeFactory.textNode(example)
+        } else {
+            mapper.nodeFactory.textNode(example)
+        }
+
+    /**
+     * Nests the flat descriptor paths such as `data[].name` into object and array schemas.
+     */
+    fun schema(fields: JsonNode): ObjectNode {
+        val root = mapper.createObjectNode()
+
+        fields.forEach { field ->
+            if (field.path("ignored").asBoolean()) {
+                return@forEach
+            }
+
+            var schema = root
+            val optional = field.path("optional").asBoolean()
+            val segments = field.path("path").asText().split('.')
+            segments.forEachIndexed { index, segment ->
+                val name = segment.trimEnd('[', ']')
+                val arrays = (segment.length - name.length) / ARRAY.length
+
+                if (name.isNotEmpty()) {
+                    schema.put("type", "object")
+                    if (!optional) {
+                        required(schema, name)
+                    }
+                    schema = schema.child("properties").child(name)
+                }
+
+                repeat(arrays) {
+                    schema.put("type", "array")
+                    schema = schema.child("items")
+                }
+
+                if (index == segments.lastIndex) {
+                    leaf(schema, field, arrays > 0)
+                }
+            }
+        }
+
+        return root
+    }
+
+    /**
+     * Containers are required as soon as one of the fields below them is.
+     */
+    private fun required(schema: ObjectNode, name: String) {
+        val required = schema.get("required") as? ArrayNode ?: schema.putArray("required")
+        if (required.none { it.asText() == name }) {
+            required.add(name)
+        }
+    }
+
+    private fun leaf(schema: ObjectNode, field: JsonNode, elements: Boolean) {
+        field.textOrNull("description")?.let { schema.put("description", it) }
+        if (field.path("nullable").asBoolean()) {
+            schema.put("nullable", true)
+        }
+
+        when (val type = field.path("type").asText().uppercase()) {
+            "VARIES" -> Unit
+            "NULL" -> schema.put("nullable", true)
+            "ARRAY" -> if (!elements) schema.put("type", "array").putObject("items")
+            "POJO" -> schema.put("type", "object")
+            else -> if (!schema.has("type")) schema.put("type", type.lowercase())
+        }
+    }
+
+    private fun parameterType(type: String) = when (type.uppercase()) {
+        "INTEGER", "NUMBER", "BOOLEAN" -> type.lowercase()
+        else -> "string"
+    }
+
+    private fun ObjectNode.child(name: String): ObjectNode = get(name) as? ObjectNode ?: putObject(name)
+
+    private fun JsonNode.textOrNull(name: String): String? = get(name)?.takeUnless { it.isNull }?.asText()
+
+    companion object {
+        private const val ARRAY = "[]"
+        private const val DEFAULT_STATUS = 200
+    }
+}
+
+/**
+ * One documented call, ordered by path, method, operation id and snippet so sorted fragments can be merged as streams.
+ */
+internal data class SnippetOperation(
+    val path: String,
+    val method: String,
+    val operationId: String,
+    val snippet: String,
+    val operation: ObjectNode,
+) : Comparable<SnippetOperation> {
+    override fun compareTo(other: SnippetOperation): Int = COMPARATOR.compare(this, other)
+
+    fun sameEndpoint(other: SnippetOperation) = path == other.path && method == other.method
+
+    companion object {
+        private val COMPARATOR = compareBy<SnippetOperation>({ it.path }, { it.method }, { it.operationId }, { it.snippet })
+    }
+}
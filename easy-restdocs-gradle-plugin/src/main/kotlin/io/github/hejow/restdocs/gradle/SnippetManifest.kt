@@ -0,0 +1,79 @@
+package io.github.hejow.restdocs.gradle
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import java.io.File
+import java.security.MessageDigest
+
+/**
+ * Content hash of every snippet the stored operations were converted from, keyed by the path of the snippet.
+ * A snippet whose hash is unchanged is never parsed again. Precompressed outputs are tracked the same way in [compressed].
+ */
+internal class SnippetManifest(
+    val hashes: Map<String, String>,
+    val swaggerUi: String?,
+    val compressed: Map<String, String> = emptyMap(),
+) {
+    fun write(mapper: ObjectMapper, file: File) {
+        val node = mapper.createObjectNode().put(VERSION, CURRENT_VERSION).put(SWAGGER_UI, swaggerUi)
+        val snippets = node.putObject(SNIPPETS)
+        hashes.toSortedMap().forEach { (snippet, hash) -> snippets.put(snippet, hash) }
+        val outputs = node.putObject(COMPRESSED)
+        compressed.toSortedMap().forEach { (output, hash) -> outputs.put(output, hash) }
+
+        file.parentFile.mkdirs()
+        mapper.writeValue(file, node)
+    }
+
+    companion object {
+        val EMPTY = SnippetManifest(emptyMap(), null)
+
+        // bump whenever converted operations change shape, stored ones are then converted again
+        private const val CURRENT_VERSION = 1
+        private const val VERSION = "version"
+        private const val SWAGGER_UI = "swaggerUi"
+        private const val SNIPPETS = "snippets"
+        private const val COMPRESSED = "compressed"
+
+        fun read(mapper: ObjectMapper, file: File): SnippetManifest {
+            if (!file.isFile) {
+                return EMPTY
+            }
+
+            val node = runCatching { mapper.readTree(file) }.getOrNull()
+            if (node == null || node.path(VERSION).asInt() != CURRENT_VERSION) {
+                return EMPTY
+            }
+
+            val hashes = HashMap<String, String>()
+            node.path(SNIPPETS).fields().forEach { (snippet, hash) -> hashes[snippet] = hash.asText() }
+            val compressed = HashMap<String, String>()
+            node.path(COMPRESSED).fields().forEach { (output, hash) -> compressed[output] = hash.asText() }
+            return SnippetManifest(hashes, node.path(SWAGGER_UI).textValue(), compressed)
+        }
+
+        /**
+         * Path of [snippet] relative to [root], with `/` separators on every platform.
+         */
+        fun key(root: File, snippet: File): String = snippet.relativeTo(root).invariantSeparatorsPath
+
+        fun hash(file: File): String {
+            val digest = MessageDigest.getInstance("SHA-256")
+            file.inputStream().use { input ->
+                val buffer = ByteArray(DEFAULT_BUFFER_SIZE)
+                while (true) {
+                    val read = input.read(buffer)
+                    if (read < 0) {
+                        break
+                    }
+                    digest.update(buffer, 0, read)
+                }
+            }
+
+            return hex(digest.digest())
+        }
+
+        fun hash(bytes: ByteArray): String = hex(MessageDigest.getInstance("SHA-256").digest(bytes))
+
+        private fun hex(digest: ByteArray): String = digest.joinToString("") { "%02x".format(it) }
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.hejow.restdocs.gradle
+
+import com.fasterxml.jackson.core.JsonToken
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+
+/**
+ * Reads the single file snippet stores the generator appends to with `snippetStore(true)`, one snippet per line:
+ *
+ * ```
+ * {"operation":"user-save","snippet":"resource.json","content":{...}}
+ * ```
+ *
+ * Stores are memory mapped and scanned sequentially, a window at a time. Each `resource.json` line is keyed like
+ * the file it replaces, `<operation>/resource.json`, so [SnippetManifest] tracks both the same way.
+ * Stores are visited by name, which starts with the time their test JVM started, so the line of the latest run wins.
+ */
+internal object SnippetStores {
+    const val PATTERN = "easy-restdocs-*.ndjson"
+
+    private const val OPERATION = "operation"
+    private const val SNIPPET = "snippet"
+    private const val CONTENT = "content"
+    private const val NEWLINE = '\n'.code.toByte()
+    private const val WINDOW = 8L * 1024 * 1024
+
+    class Line(val start: Long, val length: Int)
+
+    /**
+     * The line of one stored snippet, and the hash of the line.
+     */
+    class StoredSnippet(val store: File, val line: Line, val hash: String)
+
+    /**
+     * @return the `resource.json` lines of [stores], keyed by snippet
+     */
+    fun index(mapper: ObjectMapper, stores: List<File>): Map<String, StoredSnippet> {
+        val snippets = HashMap<String, StoredSnippet>()
+
+        stores.sortedBy { it.name }.forEach { store ->
+            forEachLine(store) { start, line ->
+                val bytes = ByteArray(line.remaining()).also { line.get(it) }
+                val key = key(mapper, bytes) ?: return@forEachLine
+                snippets[key] = StoredSnippet(store, Line(start, bytes.size), SnippetManifest.hash(bytes))
+            }
+        }
+
+        return snippets
+    }
+
+    /**
+     * Reads the content of each of [lines] in the order of the store, through windows mapped as the reads move on.
+     */
+    fun read(mapper: ObjectMapper, store: File, lines: List<Line>, action: (Line, JsonNode) -> Unit) {
+        FileChannel.open(store.toPath(), StandardOpenOption.READ).use { channel ->
+            val size = channel.size()
+            var buffer: ByteBuffer? = null
+            var position = 0L
+
+            lines.sortedBy { it.start }.forEach { line ->
+                if (buffer == null || line.start + line.length > position + buffer!!.limit()) {
+                    position = line.start
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, minOf(maxOf(WINDOW, line.length.toLong()), size - position))
+                }
+
+                val bytes = ByteArray(line.length)
+                buffer!!.get((line.start - position).toInt(), bytes)
+                action(line, mapper.readTree(bytes).path(CONTENT))
+            }
+        }
+    }
+
+    /**
+     * Visits every complete line of [store]. A line cut short by a test JVM that didn't exit cleanly has no newline and is skipped.
+     */
+    private fun forEachLine(store: File, action: (Long, ByteBuffer) -> Unit) {
+        FileChannel.open(store.toPath(), StandardOpenOption.READ).use { channel ->
+            val size = channel.size()
+            var position = 0L
+            var window = WINDOW
+
+            while (position < size) {
+                val buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, minOf(window, size - position))
+                var start = 0
+
+                for (index in 0 until buffer.limit()) {
+                    if (buffer.get(index) == NEWLINE) {
+                        if (index > start) {
+                            action(position + start, buffer.slice(start, index - start))
+                        }
+                        start = index + 1
+                    }
+                }
+
+                if (position + buffer.limit() == size) {
+                    return
+                }
+
+                // a line longer than the window grows it, otherwise the next window starts at the first incomplete line
+                if (start == 0) window *= 2 else position += start
+            }
+        }
+    }
+
+    /**
+     * Reads the leading fields of a line, its content is left to the worker converting it.
+     */
+    private fun key(mapper: ObjectMapper, line: ByteArray): String? {
+        var operation: String? = null
+        var snippet: String? = null
+
+        mapper.factory.createParser(line).use { parser ->
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME && (operation == null || snippet == null)) {
+                when (parser.currentName()) {
+                    OPERATION -> operation = parser.nextTextValue()
+                    SNIPPET -> snippet = parser.nextTextValue()
+                    else -> {
+                        parser.nextToken()
+                        parser.skipChildren()
+                    }
+                }
+            }
+        }
+
+        return if (operation != null && snippet == EasyRestdocsTask.RESOURCE_SNIPPET) "$operation/$snippet" else null
+    }
+}
@@ -0,0 +1,199 @@
+package io.github.hejow.restdocs.gradle
+
+import com.fasterxml.jackson.core.JsonGenerator
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ObjectNode
+import java.io.File
+
+/**
+ * Writes the OpenAPI document out of sorted fragments with a streaming generator. <br>
+ * Fragments are merged like sorted runs, so only one operation per fragment and the endpoint being written are in memory.
+ * Calls documenting the same path and method are folded into one operation, each keeps its own responses and examples.
+ * Several documents can be written in the same pass, e.g. one per tag.
+ *
+ * Endpoints with accumulated [schemas] get the schemas folded out of all their calls instead of the ones of the first call.
+ */
+internal class SpecWriter(
+    private val mapper: ObjectMapper,
+    private val info: SpecInfo,
+    private val pretty: Boolean = true,
+    private val schemas: Map<String, EndpointSchemas.Endpoint> = emptyMap(),
+) {
+    private val converter = SnippetConverter(mapper)
+
+    /**
+     * @return tags of the written operations, see [tags]
+     */
+    fun write(fragments: List<File>, spec: File): Set<String> {
+        val tags = sortedSetOf<String>()
+        write(fragments, mapOf(spec to { operation -> tags.addAll(tags(operation)); true }))
+        return tags
+    }
+
+    /**
+     * Writes several documents in a single pass over [fragments], each endpoint goes to the specs whose filter accepts it.
+     */
+    fun write(fragments: List<File>, specs: Map<File, (ObjectNode) -> Boolean>) {
+        val outputs = specs.map { (spec, filter) ->
+            spec.parentFile.mkdirs()
+            Output(mapper.factory.createGenerator(spec.outputStream().buffered()), filter)
+        }
+
+        try {
+            outputs.forEach { it.start() }
+            paths(fragments, outputs)
+            outputs.forEach { it.end() }
+        } finally {
+            outputs.forEach { it.generator.close() }
+        }
+    }
+
+    private fun header(generator: JsonGenerator) {
+        generator.writeStringField("openapi", OPENAPI_VERSION)
+
+        generator.writeObjectFieldStart("info")
+        generator.writeStringField("title", info.title)
+        info.description?.let { generator.writeStringField("description", it) }
+        generator.writeStringField("version", info.version)
+        generator.writeEndObject()
+
+        if (info.servers.isNotEmpty()) {
+            generator.writeArrayFieldStart("servers")
+            info.servers.forEach { url ->
+                generator.writeStartObject()
+                generator.writeStringField("url", url)
+                generator.writeEndObject()
+            }
+            generator.writeEndArray()
+        }
+    }
+
+    private fun paths(fragments: List<File>, outputs: List<Output>) {
+        val endpoint = mutableListOf<SnippetOperation>()
+
+        val writeEndpoint = {
+            val first = endpoint.first()
+            val operation = fold(endpoint)
+            outputs.filter { it.filter(operation) }.forEach { it.write(first.path, first.method, operation) }
+            endpoint.clear()
+        }
+
+        Fragments.forEachSorted(mapper, fragments) { operation, _ ->
+            if (endpoint.isNotEmpty() && !endpoint.first().sameEndpoint(operation)) {
+                writeEndpoint()
+            }
+            endpoint.add(operation)
+        }
+
+        if (endpoint.isNotEmpty()) {
+            writeEndpoint()
+        }
+    }
+
+    /**
+     * The first call describes the operation, responses and examples of the others are added to it.
+     */
+    private fun fold(endpoint: List<SnippetOperation>): ObjectNode {
+        val first = endpoint.first()
+        val operation = first.operation
+        val responses = operation.get("responses") as ObjectNode
+
+        endpoint.drop(1).forEach { other ->
+            other.operation.path("responses").fields().forEach { (status, response) ->
+                val existing = responses.get(status) as? ObjectNode
+                if (existing == null) {
+                    responses.set<ObjectNode>(status, response)
+                } else {
+                    addExamples(existing, response)
+                }
+            }
+
+            (operation.get("requestBody") as? ObjectNode)?.let { addExamples(it, other.operation.path("requestBody")) }
+        }
+
+        schemas[EndpointSchemas.key(first.method, first.path)]?.let { schema ->
+            schema.request?.let { replaceSchemas(operation.path("requestBody"), it) }
+            schema.responses.forEach { (status, message) -> replaceSchemas(responses.path(status), message) }
+        }
+
+        return operation
+    }
+
+    private fun replaceSchemas(target: JsonNode, message: EndpointSchemas.Message) {
+        target.path("content").forEach { media ->
+            (media as? ObjectNode)?.set<ObjectNode>("schema", converter.schema(EndpointSchemas.descriptors(mapper, message)))
+        }
+    }
+
+    private fun addExamples(target: ObjectNode, source: JsonNode) {
+        source.path("content").fields().forEach { (contentType, media) ->
+            val examples = target.path("content").path(contentType).get("examples") as? ObjectNode ?: return@forEach
+            media.path("examples").fields().forEach { (name, example) ->
+                if (!examples.has(name)) {
+                    examples.set<ObjectNode>(name, example)
+                }
+            }
+        }
+    }
+
+    /**
+     * One document being written, endpoints arrive sorted by path.
+     */
+    private inner class Output(val generator: JsonGenerator, val filter: (ObjectNode) -> Boolean) {
+        private var path: String? = null
+
+        fun start() {
+            if (pretty) {
+                generator.useDefaultPrettyPrinter()
+            }
+            generator.writeStartObject()
+            header(generator)
+            generator.writeObjectFieldStart("paths")
+        }
+
+        fun write(path: String, method: String, operation: ObjectNode) {
+            if (path != this.path) {
+                if (this.path != null) {
+                    generator.writeEndObject()
+                }
+                this.path = path
+                generator.writeObjectFieldStart(path)
+            }
+
+            generator.writeFieldName(method)
+            mapper.writeTree(generator, operation)
+        }
+
+        fun end() {
+            if (path != null) {
+                generator.writeEndObject()
+            }
+
+            generator.writeEndObject()
+            generator.writeEndObject()
+        }
+    }
+
+    companion object {
+        const val DEFAULT_TAG = "default"
+
+        private const val OPENAPI_VERSION = "3.0.1"
+
+        /**
+         * Tags of a folded operation, [DEFAULT_TAG] when it has none.
+         */
+        fun tags(operation: ObjectNode): List<String> =
+            operation.path("tags").map { it.asText() }.ifEmpty { listOf(DEFAULT_TAG) }
+    }
+}
+
+/**
+ * `info` and `servers` of the generated document.
+ */
+internal data class SpecInfo(
+    val title: String,
+    val description: String?,
+    val version: String,
+    val servers: List<String>,
+)
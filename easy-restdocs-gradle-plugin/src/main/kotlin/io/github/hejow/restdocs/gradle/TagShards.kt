@@ -0,0 +1,44 @@
+package io.github.hejow.restdocs.gradle
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import java.io.File
+
+/**
+ * Layout of the specs sharded by tag: `tags/<tag>.json` next to the whole spec, listed by `tags/index.json`.
+ * Swagger UI lists the shards and only fetches the one that is selected.
+ */
+internal object TagShards {
+    const val DIRECTORY = "tags"
+
+    private const val INDEX = "index.json"
+    private val UNSAFE = Regex("[^a-z0-9]+")
+
+    /**
+     * File names of the shards by tag, tags differing only in case or punctuation get a numbered name.
+     */
+    fun fileNames(tags: Collection<String>): Map<String, String> {
+        val used = HashSet<String>()
+
+        return tags.associateWith { tag ->
+            val base = tag.lowercase().replace(UNSAFE, "-").trim('-').ifEmpty { SpecWriter.DEFAULT_TAG }
+            var name = base
+            var sequence = 1
+            while (!used.add(name)) {
+                name = "$base-${++sequence}"
+            }
+            "$name.json"
+        }
+    }
+
+    /**
+     * `{"specs":[{"name":"user api","url":"user-api.json"}]}`, urls are relative to the index.
+     */
+    fun writeIndex(mapper: ObjectMapper, fileNames: Map<String, String>, directory: File) {
+        val index = mapper.createObjectNode()
+        val specs = index.putArray("specs")
+        fileNames.forEach { (tag, fileName) -> specs.addObject().put("name", tag).put("url", fileName) }
+
+        directory.mkdirs()
+        mapper.writerWithDefaultPrettyPrinter().writeValue(File(directory, INDEX), index)
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.hejow.restdocs.gradle
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ObjectNode
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+import org.gradle.workers.WorkAction
+import org.gradle.workers.WorkParameters
+import java.io.File
+
+/**
+ * Writes the specs of one batch of tags in a single pass over the operation store.
+ * Batches run in parallel on the workers of the build, an operation with several tags is written to each of their specs.
+ */
+abstract class WriteTagShards : WorkAction<WriteTagShards.Parameters> {
+    interface Parameters : WorkParameters {
+        val store: RegularFileProperty
+        val tags: ListProperty<String>
+        val fileNames: ListProperty<String>
+        val directory: DirectoryProperty
+        val title: Property<String>
+        val apiDescription: Property<String>
+        val apiVersion: Property<String>
+        val servers: ListProperty<String>
+        val pretty: Property<Boolean>
+        val schemas: ConfigurableFileCollection
+    }
+
+    override fun execute() {
+        val info = SpecInfo(
+            title = parameters.title.get(),
+            description = parameters.apiDescription.orNull,
+            version = parameters.apiVersion.get(),
+            servers = parameters.servers.get(),
+        )
+        val directory = parameters.directory.get().asFile
+        val fileNames = parameters.fileNames.get()
+
+        val specs = parameters.tags.get().withIndex().associate { (index, tag) ->
+            File(directory, fileNames[index]) to { operation: ObjectNode -> tag in SpecWriter.tags(operation) }
+        }
+
+        val mapper = ObjectMapper()
+        val schemas = EndpointSchemas.read(mapper, parameters.schemas.files)
+        SpecWriter(mapper, info, parameters.pretty.get(), schemas).write(listOf(parameters.store.get().asFile), specs)
+    }
+}
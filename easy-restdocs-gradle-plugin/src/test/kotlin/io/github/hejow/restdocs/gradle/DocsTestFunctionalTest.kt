@@ -0,0 +1,122 @@
+package io.github.hejow.restdocs.gradle
+
+import org.gradle.testkit.runner.BuildResult
+import org.gradle.testkit.runner.GradleRunner
+import org.gradle.testkit.runner.TaskOutcome
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+
+/**
+ * Runs `docsTest` on a Java project whose tests document through a stand-in `Document`,
+ * with JUnit taken from the classpath of this test so the build stays offline.
+ */
+class DocsTestFunctionalTest {
+    @TempDir
+    lateinit var workspace: File
+
+    private val projectDirectory get() = File(workspace, "project")
+
+    @BeforeEach
+    fun setUp() {
+        val junit = System.getProperty("java.class.path").split(File.pathSeparator)
+            .filter { path -> File(path).name.let { it.startsWith("junit-") || it.startsWith("opentest4j") || it.startsWith("apiguardian") } }
+            .joinToString { "'${it.replace("\\", "/")}'" }
+
+        File(projectDirectory, "settings.gradle").apply { parentFile.mkdirs() }.writeText(
+            """
+            rootProject.name = 'documented'
+
+            buildCache {
+                local {
+                    directory = '${File(workspace, "build-cache").path.replace("\\", "/")}'
+                }
+            }
+            """.trimIndent()
+        )
+        File(projectDirectory, "build.gradle").writeText(
+            """
+            plugins {
+                id 'java'
+                id 'io.github.hejow.easy-rest-docs'
+            }
+
+            dependencies {
+                testImplementation files($junit)
+            }
+            """.trimIndent()
+        )
+
+        source("io/github/hejow/restdocs/generator/Document.java", "package io.github.hejow.restdocs.generator; public class Document { public static void document() {} }")
+        source("DocumentingBase.java", "public abstract class DocumentingBase { protected void document() { io.github.hejow.restdocs.generator.Document.document(); } }")
+        source("InheritingTest.java", "public class InheritingTest extends DocumentingBase { @org.junit.jupiter.api.Test void documents() { document(); } }")
+        source(
+            "OuterTest.java",
+            "public class OuterTest { @org.junit.jupiter.api.Nested class Inner { @org.junit.jupiter.api.Test void documents() { io.github.hejow.restdocs.generator.Document.document(); } } }"
+        )
+        source("PlainTest.java", "public class PlainTest { @org.junit.jupiter.api.Test void runs() {} }")
+    }
+
+    @Test
+    fun `subclasses and outer classes of documenting classes are run`() {
+        // when
+        val result = run(projectDirectory)
+
+        // then
+        assertEquals(TaskOutcome.SUCCESS, result.task(":docsTest")?.outcome)
+        assertEquals(setOf("InheritingTest", "OuterTest\$Inner"), testResults(projectDirectory))
+    }
+
+    @Test
+    fun `relocated project is taken from the build cache`() {
+        // given
+        run(projectDirectory, "--build-cache")
+        val relocated = File(workspace, "relocated")
+        projectDirectory.copyRecursively(relocated)
+        File(relocated, "build").deleteRecursively()
+
+        // when
+        val result = run(relocated, "--build-cache")
+
+        // then
+        assertEquals(TaskOutcome.FROM_CACHE, result.task(":docsTest")?.outcome)
+    }
+
+    @Test
+    fun `stores and schemas of the previous run are deleted`() {
+        // given
+        run(projectDirectory, "--configuration-cache")
+        val snippets = File(projectDirectory, "build/generated-snippets").apply { mkdirs() }
+        val store = File(snippets, "easy-restdocs-0000000000001-1.ndjson").apply { writeText("{}\n") }
+        val schemas = File(snippets, "easy-restdocs-schemas-0000000000001-1.json").apply { writeText("{}") }
+        source("PlainTest.java", "public class PlainTest { @org.junit.jupiter.api.Test void runsAgain() {} }")
+
+        // when
+        val result = run(projectDirectory, "--configuration-cache")
+
+        // then
+        assertTrue(result.output.contains("Reusing configuration cache"), result.output)
+        assertFalse(store.exists())
+        assertFalse(schemas.exists())
+    }
+
+    private fun run(directory: File, vararg arguments: String): BuildResult =
+        GradleRunner.create()
+            .withProjectDir(directory)
+            .withPluginClasspath()
+            .withArguments(listOf("docsTest", "--stacktrace") + arguments)
+            .forwardOutput()
+            .build()
+
+    private fun testResults(directory: File): Set<String> =
+        File(directory, "build/test-results/docsTest").listFiles { file -> file.name.endsWith(".xml") }.orEmpty()
+            .mapTo(HashSet()) { it.name.removePrefix("TEST-").removeSuffix(".xml") }
+
+    private fun source(path: String, content: String) {
+        File(projectDirectory, "src/test/java/$path").apply { parentFile.mkdirs() }.writeText(content)
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.hejow.restdocs.gradle
+
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.gradle.testkit.runner.BuildResult
+import org.gradle.testkit.runner.GradleRunner
+import org.gradle.testkit.runner.TaskOutcome
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+/**
+ * Runs `easyRestdocs` on snippets written by hand, the way the documented tests would have left them.
+ * The project doesn't apply `java`, so `docsTest` isn't part of the build, and Swagger UI comes from a local webjar.
+ */
+class EasyRestdocsPluginFunctionalTest {
+    private val mapper = ObjectMapper()
+
+    @TempDir
+    lateinit var projectDirectory: File
+
+    private val snippets get() = File(projectDirectory, "build/generated-snippets")
+
+    private val spec get() = mapper.readTree(File(projectDirectory, "build/easy-restdocs/openapi3.json"))
+
+    @BeforeEach
+    fun setUp() {
+        webjar(File(projectDirectory, "swagger-ui.jar"))
+        File(projectDirectory, "settings.gradle").writeText("rootProject.name = 'documented'\n")
+        File(projectDirectory, "build.gradle").writeText(
+            """
+            plugins {
+                id 'io.github.hejow.easy-rest-docs'
+            }
+
+            dependencies {
+                easyRestdocsSwaggerUi files('swagger-ui.jar')
+            }
+
+            easyRestdocs {
+                title = 'Documented'
+            }
+            """.trimIndent()
+        )
+    }
+
+    @Test
+    fun `unchanged rerun is up to date`() {
+        // given
+        resource("user-save", "POST", "/users")
+        resource("user-find", "GET", "/users/{id}")
+        assertEquals(TaskOutcome.SUCCESS, run().task(":easyRestdocs")?.outcome)
+
+        // when
+        val rerun = run()
+
+        // then
+        assertEquals(TaskOutcome.UP_TO_DATE, rerun.task(":easyRestdocs")?.outcome)
+        assertEquals(setOf("/users", "/users/{id}"), paths())
+    }
+
+    @Test
+    fun `configuration cache is reused`() {
+        // given
+        resource("user-save", "POST", "/users")
+        run("--configuration-cache")
+        resource("user-find", "GET", "/users/{id}")
+
+        // when
+        val rerun = run("--configuration-cache")
+
+        // then
+        assertTrue(rerun.output.contains("Reusing configuration cache"), rerun.output)
+        assertEquals(TaskOutcome.SUCCESS, rerun.task(":easyRestdocs")?.outcome)
+        assertEquals(setOf("/users", "/users/{id}"), paths())
+    }
+
+    @Test
+    fun `changed and removed snippets update the spec`() {
+        // given
+        resource("user-save", "POST", "/users", "Save user")
+        resource("user-find", "GET", "/users/{id}")
+        run()
+
+        // when
+        resource("user-save", "POST", "/users", "Register user")
+        File(snippets, "user-find").deleteRecursively()
+        val rerun = run()
+
+        // then
+        assertEquals(TaskOutcome.SUCCESS, rerun.task(":easyRestdocs")?.outcome)
+        assertEquals(setOf("/users"), paths())
+        assertEquals("Register user", spec.at("/paths/~1users/post/summary").asText())
+    }
+
+    @Test
+    fun `non-incremental run converts every snippet again`() {
+        // given
+        resource("user-save", "POST", "/users")
+        run()
+        val operations = File(projectDirectory, "build/easy-restdocs-state/operations.ndjson")
+        operations.writeText(operations.readText().replace("/users", "/stale"))
+
+        // when
+        val rerun = run("--rerun-tasks")
+
+        // then
+        assertEquals(TaskOutcome.SUCCESS, rerun.task(":easyRestdocs")?.outcome)
+        assertEquals(setOf("/users"), paths())
+    }
+
+    @Test
+    fun `store line longer than the mapped window is read`() {
+        // given
+        val description = "x".repeat(9 * 1024 * 1024)
+        snippets.mkdirs()
+        File(snippets, "easy-restdocs-0000000000001-1.ndjson").writeText(
+            storedLine("user-save", "POST", "/users", description) + storedLine("user-find", "GET", "/users/{id}", "Find user")
+        )
+
+        // when
+        val result = run()
+
+        // then
+        assertEquals(TaskOutcome.SUCCESS, result.task(":easyRestdocs")?.outcome)
+        assertEquals(setOf("/users", "/users/{id}"), paths())
+        assertEquals(description.length, spec.at("/paths/~1users/post/description").asText().length)
+    }
+
+    private fun run(vararg arguments: String): BuildResult =
+        GradleRunner.create()
+            .withProjectDir(projectDirectory)
+            .withPluginClasspath()
+            .withArguments(listOf("easyRestdocs", "--stacktrace") + arguments)
+            .forwardOutput()
+            .build()
+
+    private fun paths(): Set<String> = spec.path("paths").fieldNames().asSequence().toSet()
+
+    private fun resource(operationId: String, method: String, path: String, summary: String = operationId) {
+        val directory = File(snippets, operationId).apply { mkdirs() }
+        File(directory, "resource.json").writeText(mapper.writeValueAsString(resourceOf(operationId, method, path, summary, null)))
+    }
+
+    private fun storedLine(operationId: String, method: String, path: String, description: String): String {
+        val line = mapper.createObjectNode()
+            .put("operation", operationId)
+            .put("snippet", "resource.json")
+            .set<JsonNode>("content", resourceOf(operationId, method, path, operationId, description))
+
+        return mapper.writeValueAsString(line) + "\n"
+    }
+
+    private fun resourceOf(operationId: String, method: String, path: String, summary: String, description: String?): JsonNode =
+        mapper.createObjectNode().apply {
+            put("operationId", operationId)
+            put("summary", summary)
+            description?.let { put("description", it) }
+            putArray("tags").add("User")
+            putObject("request").put("path", path).put("method", method)
+            putObject("response").put("status", 200)
+        }
+
+    private fun webjar(file: File) {
+        ZipOutputStream(file.outputStream()).use { zip ->
+            zip.putNextEntry(ZipEntry("META-INF/resources/webjars/swagger-ui/4.1.3/index.html"))
+            zip.write("<html></html>".toByteArray())
+            zip.closeEntry()
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.simplerestdocs;
+
+import io.github.hejow.restdocs.generator.AsyncSnippetWriter;
+import io.github.hejow.restdocs.generator.DocsConfiguration;
+import io.github.hejow.restdocs.generator.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.restdocs.ManualRestDocumentation;
+import org.springframework.restdocs.RestDocumentationContextProvider;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.filter.CharacterEncodingFilter;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.documentationConfiguration;
+import static org.springframework.restdocs.mockmvc.RestDocumentationRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConcurrentDocumentationTest {
+  private static final int CALLS = 400;
+  private static final int THREADS = 32;
+
+  private final DocsConfiguration configuration = DocsConfiguration.global();
+
+  @TempDir
+  private Path outputDirectory;
+
+  @AfterEach
+  void tearDown() {
+    DocsConfiguration.setGlobal(configuration);
+  }
+
+  @Test
+  void concurrentBuildAndGenerate() throws Exception {
+    // given
+    var mockMvc = mockMvc("concurrentBuildAndGenerate");
+
+    // when
+    documentConcurrently(mockMvc, "sync");
+
+    // then
+    assertDocumented("sync");
+  }
+
+  @Test
+  void concurrentBuildAndGenerateWithAsyncWrites() throws Exception {
+    // given
+    DocsConfiguration.setGlobal(configuration.toBuilder().asyncWrites(true).writeQueueCapacity(64).build());
+    var mockMvc = mockMvc("concurrentBuildAndGenerateWithAsyncWrites");
+
+    // when
+    documentConcurrently(mockMvc, "async");
+    AsyncSnippetWriter.flushAll();
+
+    // then
+    assertDocumented("async");
+  }
+
+  @Test
+  void identifierCollision() throws Exception {
+    // given
+    document(mockMvc("firstOwner"), "collision");
+
+    // when, then
+    assertThatThrownBy(() -> document(mockMvc("secondOwner"), "collision"))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("firstOwner");
+  }
+
+  private void documentConcurrently(MockMvc mockMvc, String prefix) throws Exception {
+    var executor = Executors.newFixedThreadPool(THREADS);
+
+    try {
+      var calls = new ArrayList<Callable<Void>>();
+      for (var index = 0; index < CALLS; index++) {
+        var identifier = "%s-%d".formatted(prefix, index);
+        calls.add(() -> {
+          document(mockMvc, identifier);
+          return null;
+        });
+      }
+
+      for (var call : executor.invokeAll(calls)) {
+        call.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void document(MockMvc mockMvc, String identifier) throws Exception {
+    var result = mockMvc.perform(post("/stress")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"identifier\":\"%s\",\"items\":[{\"id\":1},{\"id\":2,\"name\":\"x\"}]}".formatted(identifier)))
+      .andExpect(status().isOk());
+
+    result.andDo(
+      Document.builder()
+        .identifier(identifier)
+        .tag(() -> "Stress")
+        .summary("Stress " + identifier)
+        .result(result)
+        .buildAndGenerate()
+    );
+  }
+
+  private void assertDocumented(String prefix) {
+    IntStream.range(0, CALLS).forEach(index ->
+      assertThat(outputDirectory.resolve("%s-%d".formatted(prefix, index)).resolve("resource.json")).isNotEmptyFile()
+    );
+  }
+
+  /**
+   * Every operation gets its own context, as the same {@code MockMvc} is shared by all threads.
+   */
+  private MockMvc mockMvc(String testMethodName) {
+    RestDocumentationContextProvider restDocumentation = () -> {
+      var documentation = new ManualRestDocumentation(outputDirectory.toString());
+      documentation.beforeTest(ConcurrentDocumentationTest.class, testMethodName);
+      return documentation.beforeOperation();
+    };
+
+    return MockMvcBuilders
+      .standaloneSetup(new StressController())
+      .apply(documentationConfiguration(restDocumentation))
+      .addFilter(new CharacterEncodingFilter(UTF_8.name(), true))
+      .build();
+  }
+
+  @RestController
+  public static class StressController {
+    @PostMapping("/stress")
+    public Map<String, Object> stress(@RequestBody Map<String, Object> request) {
+      return request;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.simplerestdocs;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.setup.ConfigurableMockMvcBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcConfigurer;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+
+/**
+ * Prints every call of the {@code MockMvc} injected by {@code @EasyRestDocsTest}.
+ */
+@TestConfiguration
+public class PrintingMockMvc {
+  @Bean
+  MockMvcConfigurer printingMockMvcConfigurer() {
+    return new MockMvcConfigurer() {
+      @Override
+      public void afterConfigurerAdded(ConfigurableMockMvcBuilder<?> builder) {
+        builder.alwaysDo(print());
+      }
+    };
+  }
+}
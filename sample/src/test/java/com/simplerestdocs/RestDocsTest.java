@@ -1,57 +1,36 @@
 package com.simplerestdocs;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.hejow.restdocs.generator.ApiTag;
 import io.github.hejow.restdocs.generator.Document;
-import org.junit.jupiter.api.BeforeEach;
+import io.github.hejow.restdocs.generator.EasyRestDocsTest;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
-import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.restdocs.AutoConfigureRestDocs;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.restdocs.RestDocumentationContextProvider;
-import org.springframework.restdocs.RestDocumentationExtension;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.filter.CharacterEncodingFilter;
 
 import java.util.List;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.documentationConfiguration;
 import static org.springframework.restdocs.mockmvc.RestDocumentationRequestBuilders.get;
 import static org.springframework.restdocs.mockmvc.RestDocumentationRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@AutoConfigureRestDocs
-@ExtendWith(RestDocumentationExtension.class)
+@EasyRestDocsTest(tag = RestDocsTest.SampleTag.class)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import({RestDocsTest.TestController.class, PrintingMockMvc.class})
 class RestDocsTest {
-  @Autowired
-  private RestDocumentationContextProvider restDocumentation;
   @Autowired
   private ObjectMapper objectMapper;
 
-  private MockMvc mockMvc;
-
-  @BeforeEach
-  void setup() {
-    mockMvc = MockMvcBuilders
-      .standaloneSetup(new TestController())
-      .alwaysDo(print())
-      .apply(documentationConfiguration(restDocumentation))
-      .addFilter(new CharacterEncodingFilter(UTF_8.name(), true))
-      .build();
-  }
-
   @Test
-  void sample1() throws Exception {
+  void sample1(MockMvc mockMvc, Document.Builder document) throws Exception {
     // given
     var request = new TestDto(
       "first",
@@ -80,8 +59,7 @@ class RestDocsTest {
 
     // docs
     result.andDo(
-      Document.builder()
-        .tag(() -> "Sample")
+      document
         .summary("Post Sample")
         .result(result)
         .buildAndGenerate()
@@ -89,7 +67,7 @@ class RestDocsTest {
   }
 
   @Test
-  void sample2() throws Exception {
+  void sample2(MockMvc mockMvc, Document.Builder document) throws Exception {
     // given
 
     // when
@@ -100,14 +78,22 @@ class RestDocsTest {
 
     // docs
     result.andDo(
-      Document.builder()
-        .tag(() -> "Sample")
+      document
         .summary("Get Sample")
         .result(result)
         .buildAndGenerate()
     );
   }
 
+  enum SampleTag implements ApiTag {
+    SAMPLE;
+
+    @Override
+    public String getName() {
+      return "Sample";
+    }
+  }
+
   public static class TestDto {
     private final String first;
     private final String second;
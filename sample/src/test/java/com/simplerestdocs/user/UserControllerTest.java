@@ -1,57 +1,37 @@
 package com.simplerestdocs.user;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simplerestdocs.PrintingMockMvc;
 import io.github.hejow.restdocs.generator.Document;
+import io.github.hejow.restdocs.generator.EasyRestDocsTest;
 import org.junit.jupiter.api.*;
-import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
-import org.springframework.restdocs.RestDocumentationContextProvider;
-import org.springframework.restdocs.RestDocumentationExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
-import org.springframework.test.web.servlet.setup.MockMvcBuilders;
-import org.springframework.web.context.WebApplicationContext;
-import org.springframework.web.filter.CharacterEncodingFilter;
 
 import java.util.List;
 
-import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.documentationConfiguration;
 import static org.springframework.restdocs.mockmvc.RestDocumentationRequestBuilders.get;
 import static org.springframework.restdocs.mockmvc.RestDocumentationRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@AutoConfigureMockMvc
-@ExtendWith(RestDocumentationExtension.class)
+@EasyRestDocsTest(tag = MyTag.class, constant = "USER")
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(PrintingMockMvc.class)
 class UserControllerTest {
-  @Autowired
-  private MockMvc mockMvc;
   @Autowired
   private ObjectMapper objectMapper;
   @Autowired
   private UserRepository userRepository;
 
-  @BeforeEach
-  void setup(
-    WebApplicationContext webApplicationContext,
-    RestDocumentationContextProvider restDocumentation
-  ) {
-    this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
-      .alwaysDo(print())
-      .apply(documentationConfiguration(restDocumentation))
-      .addFilter(new CharacterEncodingFilter("UTF-8", true))
-      .build();
-  }
-
   @Test
   @Order(2)
-  void saveTest() throws Exception {
+  void saveTest(MockMvc mockMvc, Document.Builder document) throws Exception {
     // given
     UserController.CreateDto request = new UserController.CreateDto("john", "no-reply@gmail.com");
 
@@ -65,9 +45,8 @@ class UserControllerTest {
 
     // docs
     result.andDo(
-      Document.builder()
+      document
         .identifier("user-create-success")
-        .tag(MyTag.USER)
         .summary("user-create-api")
         .description("save new user")
         .result(result)
@@ -77,7 +56,7 @@ class UserControllerTest {
 
   @Test
   @Order(1)
-  void loadAllTest() throws Exception {
+  void loadAllTest(MockMvc mockMvc, Document.Builder document) throws Exception {
     // given
     User john = new User("john", "no-reply@google.com");
     User mike = new User("mike", "no-reply@apple.com");
@@ -98,9 +77,8 @@ class UserControllerTest {
 
     // docs
     result.andDo(
-      Document.builder()
+      document
         .identifier("load-all-users-success")
-        .tag(MyTag.USER)
         .summary("get-all-users-api")
         .description("load all saved users")
         .result(result)